@@ -0,0 +1,56 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+//Measures building a maze (chunk layout generation plus entity placement), alone and as a parallel batch,
+//against loading the same maze from a binary snapshot.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+    private static final int BATCH_SIZE = 64;
+
+    private final MazeGenerator generator = new MazeGenerator(25, 25);
+    private long seed = 0;
+    private ByteBuffer snapshot;
+
+    @Setup
+    public void saveSnapshot() {
+        Maze maze = new Maze(42);
+        snapshot = ByteBuffer.allocate(MazeSnapshot.size(maze));
+        MazeSnapshot.write(maze, snapshot);
+        snapshot.flip();
+    }
+
+    @Benchmark
+    public Maze generate() {
+        return new Maze(seed++);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long generateBatch() {
+        return generator.generate(BATCH_SIZE, seed++).count();
+    }
+
+    @Benchmark
+    public Maze loadSnapshot() {
+        return MazeSnapshot.read(snapshot.duplicate());
+    }
+}
@@ -0,0 +1,71 @@
+package Game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* Measures the per-tick monster work: a chase step from the monster's spawn toward the
+   player's, the same step answered from a path cache, the straight-line sight check, and one
+   roaming step. With the field pathfinders the chase step reads the shared distance field;
+   with the others it is a full-length search. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonsterBenchmark {
+    @Param({"auto", "bfs", "hpa"})
+    public String algorithm;
+
+    private Maze maze;
+    private Monster monster;
+    private Player player;
+    private int spawnX, spawnY;
+    private Pathfinder cache;
+
+    @Setup
+    public void setUp() {
+        maze = new Maze(42);
+        monster = maze.getMonster();
+        player = maze.getPlayer();
+        spawnX = monster.getX();
+        spawnY = monster.getY();
+        monster.setPathfinder(Pathfinder.create(algorithm, PathPolicy.MONSTER)); //No path cache
+        cache = Pathfinder.create(algorithm, PathPolicy.MONSTER).cached();
+    }
+
+    @Benchmark
+    public int pathfindTo() {
+        //Put the monster back on its spawn so every search covers the same distance
+        maze.moveMonster(monster, spawnX, spawnY);
+        monster.pathfindTo(player.getX(), player.getY(), maze);
+        return monster.getX();
+    }
+
+    @Benchmark
+    public int cachedStep() {
+        return cache.firstStep(spawnX, spawnY, player.getX(), player.getY(), maze);
+    }
+
+    @Benchmark
+    public boolean seesPlayer() {
+        return monster.seesPlayer(player, maze);
+    }
+
+    @Benchmark
+    public int roamRandomly() {
+        monster.roamRandomly(maze);
+        return monster.getX();
+    }
+}
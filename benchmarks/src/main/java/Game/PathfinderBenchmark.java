@@ -0,0 +1,75 @@
+package Game;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* Compares the pathfinders on the same searches between random open cells, per maze size.
+   Besides the time per search, each trial prints how many cells a search took off its open
+   list on average. Check both before changing what Pathfinder picks for "auto". */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfinderBenchmark {
+    private static final int SEARCHES = 256;
+
+    @Param({"bfs", "astar", "jps", "hpa"})
+    public String algorithm;
+
+    @Param({"19", "25", "64", "256", "1024"})
+    public int size;
+
+    private Maze maze;
+    private Pathfinder pathfinder;
+    private final int[] searches = new int[SEARCHES * 4]; //Start x, start y, target x, target y
+    private int next = 0;
+    private long nodes = 0;
+    private long searchCount = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        maze = new Maze(size, size, 1, 42);
+        pathfinder = Pathfinder.create(algorithm, PathPolicy.MONSTER);
+        Random random = new Random(7);
+        for (int i = 0; i < searches.length; i += 2) {
+            int x, y;
+            do {
+                x = random.nextInt(size);
+                y = random.nextInt(size);
+            } while (!PathPolicy.MONSTER.isPassable(maze.getGround(x, y)));
+            searches[i] = x;
+            searches[i + 1] = y;
+        }
+    }
+
+    @Benchmark
+    public int firstStep() {
+        int i = next;
+        next = (next + 4) % searches.length;
+        int step = pathfinder.firstStep(searches[i], searches[i + 1], searches[i + 2], searches[i + 3], maze);
+        nodes += pathfinder.nodesExpanded();
+        searchCount++;
+        return step;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportNodes() {
+        System.out.printf("%n%s on %dx%d: %.0f nodes expanded per search%n", algorithm, size, size, (double) nodes / searchCount);
+    }
+}
@@ -0,0 +1,67 @@
+package Game;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/* Measures GamePanel.paintComponent drawn into an offscreen image, both as a full pass and
+   clipped to the single cell a monster step dirties. The viewport keeps the cost of a
+   full pass bounded by screen size, so both maze sizes should cost about the same.
+   Runs headless; the panel is never started, so no simulation ticks happen meanwhile. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    @Param({"25", "1024"})
+    private int size;
+
+    private GamePanel panel;
+    private BufferedImage image;
+    private Graphics2D graphics;
+    private Graphics2D cellGraphics;
+
+    @Setup
+    public void setUp() {
+        GamePanel.runNum = 1; //Skip the tutorial dialog
+        panel = new GamePanel(new GameSimulation(new Maze(size, size, 42), 0));
+        panel.setSize(panel.getPreferredSize());
+        image = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        cellGraphics = image.createGraphics();
+        cellGraphics.clipRect(40, 40, 41, 41);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+        cellGraphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintComponent() {
+        panel.paintComponent(graphics);
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage paintDirtyCell() {
+        panel.paintComponent(cellGraphics);
+        return image;
+    }
+}
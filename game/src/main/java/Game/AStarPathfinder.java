@@ -0,0 +1,133 @@
+package Game;
+
+import java.util.Arrays;
+
+/* A* search guided by the Manhattan distance to the target.
+   Step costs come from the policy, so it also finds the cheapest path when some cells cost
+   more than others. Ties between equally good cells go to the one closer to the target,
+   which keeps the search from spreading sideways across open areas. Buffers are reused
+   between searches and reset with a generation stamp, like BfsPathfinder. */
+public final class AStarPathfinder implements Pathfinder {
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
+    private final PathPolicy policy;
+    private final SearchHeap open = new SearchHeap();
+    private int[] cost = new int[0];    //Cheapest known cost from the start to each cell
+    private int[] parent = new int[0];  //Cell each cell was best reached from
+    private int[] seen = new int[0];    //Generation in which a cell was first reached
+    private int[] closed = new int[0];  //Generation in which a cell's cost became final
+    private int generation = 0;
+    private int expanded = 0;
+
+    public AStarPathfinder() {
+        this(PathPolicy.MONSTER);
+    }
+
+    public AStarPathfinder(PathPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        if (!search(startX, startY, targetX, targetY, maze)) return -1;
+
+        int step = targetY * maze.getWidth() + targetX;
+        while (parent[step] != start) {
+            step = parent[step];
+        }
+        return step;
+    }
+
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        int target = targetY * maze.getWidth() + targetX;
+        if (!search(startX, startY, targetX, targetY, maze)) return NO_PATH;
+
+        int length = 0;
+        for (int cell = target; cell != start; cell = parent[cell]) length++;
+        int[] path = new int[length];
+        for (int cell = target; cell != start; cell = parent[cell]) path[--length] = cell;
+        return path;
+    }
+
+    //Runs the search and returns true once the target's cost is final
+    private boolean search(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int start = startY * width + startX;
+        int target = targetY * width + targetX;
+        expanded = 0;
+        if (start == target) return false;
+
+        prepare(width * height);
+        open.clear();
+        cost[start] = 0;
+        parent[start] = -1;
+        seen[start] = generation;
+        open.push(start, key(0, startX, startY, targetX, targetY));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (closed[current] == generation) continue; //Stale copy of a cell reached more cheaply
+            closed[current] = generation;
+            expanded++;
+
+            if (current == target) {
+                GameMetrics.bfs(expanded);
+                return true;
+            }
+
+            int cx = current % width;
+            int cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+
+                int next = ny * width + nx;
+                if (closed[next] == generation) continue;
+                int stepCost = policy.cost(maze.getGround(nx, ny));
+                if (stepCost == PathPolicy.BLOCKED) continue;
+
+                int nextCost = cost[current] + stepCost;
+                if (seen[next] == generation && nextCost >= cost[next]) continue;
+                seen[next] = generation;
+                cost[next] = nextCost;
+                parent[next] = current;
+                open.push(next, key(nextCost, nx, ny, targetX, targetY));
+            }
+        }
+        GameMetrics.bfs(expanded);
+        return false;
+    }
+
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    //Orders cells by estimated total cost, then by remaining distance
+    private static long key(int cost, int x, int y, int targetX, int targetY) {
+        int remaining = Math.abs(targetX - x) + Math.abs(targetY - y);
+        return ((long) (cost + remaining) << 32) | remaining;
+    }
+
+    //Grows the buffers if the maze got bigger and starts a new generation
+    private void prepare(int cells) {
+        if (seen.length < cells) {
+            cost = new int[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package Game;
+
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.ImageCapabilities;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/* Active rendering into a Canvas, for -Dmaze.render=active.
+   A dedicated thread draws the newest FrameSnapshot into a two-buffer BufferStrategy and shows
+   it, page flipping where the graphics pipeline supports it, at most fps times a second. Frames
+   are paced against a fixed schedule; a late frame pushes the schedule back instead of being
+   followed by a burst. Painting therefore never waits on the Swing event thread, and the game
+   logic running there never waits on painting. */
+final class ActiveRenderer {
+    private final Canvas canvas = new Canvas();
+    private final long frameNanos;
+    private final AtomicReference<FrameSnapshot> latest = new AtomicReference<>();
+    private volatile boolean running = false;
+    private Thread thread;
+
+    ActiveRenderer(int fps) {
+        if (fps < 1) {
+            throw new IllegalArgumentException("Frame rate cap must be at least 1, got " + fps);
+        }
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+        canvas.setIgnoreRepaint(true); //All drawing happens on the render thread
+    }
+
+    Canvas getCanvas() {
+        return canvas;
+    }
+
+    //Hands over the picture the next frame should show; safe to call from any thread
+    void publish(FrameSnapshot frame) {
+        latest.set(frame);
+    }
+
+    //Creates the buffers and starts the render thread. The canvas must already be on screen.
+    synchronized void start() {
+        if (running) return;
+        try {
+            canvas.createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true),
+                    new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            canvas.createBufferStrategy(2); //No page flipping here, let AWT pick the best it has
+        }
+        running = true;
+        thread = new Thread(this::run, "render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Stops the render thread after its current frame. Safe to call from any thread.
+    void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void run() {
+        BufferStrategy strategy = canvas.getBufferStrategy();
+        Color background = canvas.getBackground();
+        long next = System.nanoTime();
+        while (running) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            next += frameNanos;
+            if (System.nanoTime() - next > frameNanos) {
+                next = System.nanoTime() + frameNanos; //Fell more than a frame behind: start a new schedule
+            }
+
+            FrameSnapshot frame = latest.get();
+            if (frame == null) continue;
+            long started = GameMetrics.start();
+            try {
+                do {
+                    do {
+                        Graphics g = strategy.getDrawGraphics();
+                        frame.draw(g, background);
+                        g.dispose();
+                    } while (strategy.contentsRestored());
+                    strategy.show();
+                } while (strategy.contentsLost());
+            } catch (IllegalStateException e) {
+                return; //The canvas left the screen under us
+            }
+            Toolkit.getDefaultToolkit().sync();
+            GameMetrics.paint(started);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Reusable breadth-first search over the maze grid, treating every passable cell as one step.
+   Cells are addressed by their flat index (y * width + x). The queue, parent and
+   visited arrays are kept between searches, and the visited set is cleared by
+   bumping a generation stamp instead of reallocating, so a search creates no
+   objects once the buffers have been sized for the maze. */
+public final class BfsPathfinder implements Pathfinder {
+    //Same exploration order the original node-based search used
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
+    private final PathPolicy policy;    //Which cells may be entered
+    private int[] queue = new int[0];   //Ring buffer of cells waiting to be explored
+    private int[] parent = new int[0];  //Cell each visited cell was reached from
+    private int[] stamp = new int[0];   //Generation in which a cell was last visited
+    private int generation = 0;
+    private int expanded = 0;           //Cells the last search took off the queue
+
+    public BfsPathfinder() {
+        this(PathPolicy.MONSTER);
+    }
+
+    public BfsPathfinder(PathPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        if (!search(start, targetY * maze.getWidth() + targetX, maze)) return -1;
+
+        //Walk back until the cell right after the start
+        int step = targetY * maze.getWidth() + targetX;
+        while (parent[step] != start) {
+            step = parent[step];
+        }
+        return step;
+    }
+
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        int target = targetY * maze.getWidth() + targetX;
+        if (!search(start, target, maze)) return NO_PATH;
+
+        int length = 0;
+        for (int cell = target; cell != start; cell = parent[cell]) length++;
+        int[] path = new int[length];
+        for (int cell = target; cell != start; cell = parent[cell]) path[--length] = cell;
+        return path;
+    }
+
+    //Searches outward from the start and returns true once the target is reached
+    private boolean search(int start, int target, Maze maze) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        expanded = 0;
+        if (start == target) return false;
+
+        prepare(width * height);
+        int mask = queue.length - 1;
+        int head = 0, tail = 0;
+
+        queue[tail++ & mask] = start;
+        stamp[start] = generation;
+        parent[start] = -1;
+
+        while (head != tail) {
+            int current = queue[head++ & mask];
+            if (current == target) {
+                expanded = head;
+                GameMetrics.bfs(head);
+                return true;
+            }
+
+            int cx = current % width;
+            int cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+
+                int next = ny * width + nx;
+                if (stamp[next] == generation) continue;
+                if (!policy.isPassable(maze.getGround(nx, ny))) continue;
+
+                stamp[next] = generation;
+                parent[next] = current;
+                queue[tail++ & mask] = next;
+            }
+        }
+        expanded = head;
+        GameMetrics.bfs(head);
+        return false;
+    }
+
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    //Grows the buffers if the maze got bigger and starts a new visited generation
+    private void prepare(int cells) {
+        if (stamp.length < cells) {
+            stamp = new int[cells];
+            parent = new int[cells];
+            queue = new int[Integer.highestOneBit(Math.max(cells - 1, 1)) << 1];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+}
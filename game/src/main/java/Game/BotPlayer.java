@@ -0,0 +1,174 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/* Scripted player that drives a simulation through the same calls the keyboard makes.
+   It walks the shortest way to the nearest key, and to the door once it holds every key,
+   going around traps when another way exists. Before each step it measures how far the
+   monsters are from the cells it could move to, and when the next cell on its way is too
+   close to one it steps to whichever open neighbour keeps it farthest from them instead.
+   The bot only reads the board and its own buffers, so a game it plays is as reproducible
+   as one played from a recorded replay. */
+public final class BotPlayer {
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+    private static final int DANGER_DISTANCE = 2;   //Steps from a monster at which a cell counts as unsafe
+    private static final int THREAT_RADIUS = 8;     //How far the monster search looks
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final GameSimulation simulation;
+    private final Maze maze;
+    private final Player player;
+    private final List<Monster> monsters;
+    private final int width;
+
+    private final int[] goalDistance;               //Steps from each cell to the nearest goal
+    private final int[] threatDistance;             //Steps from each cell to the nearest monster, within THREAT_RADIUS
+    private final int[] threatStamp;                //Decision in which threatDistance was last written for a cell
+    private final int[] queue;
+    private int decision = 0;
+    private int goalVersion = -1;                   //Maze version goalDistance was computed at
+    private boolean throughTraps;                   //Whether goalDistance lets paths cross traps
+
+    public BotPlayer(GameSimulation simulation) {
+        this.simulation = simulation;
+        this.maze = simulation.getMaze();
+        this.player = maze.getPlayer();
+        this.monsters = maze.getMonsters();
+        this.width = maze.getWidth();
+        int cells = width * maze.getHeight();
+        this.goalDistance = new int[cells];
+        this.threatDistance = new int[cells];
+        this.threatStamp = new int[cells];
+        this.queue = new int[cells];
+    }
+
+    /* Plays the game until it ends or maxTicks have run, deciding again whenever a tick changed
+       the board. Returns the simulation's outcome, RUNNING if it ran out of ticks. */
+    public GameSimulation.Outcome play(long maxTicks) {
+        boolean changed = true;
+        while (!simulation.isFinished() && simulation.getTicks() < maxTicks) {
+            if (changed) {
+                decide();
+            }
+            changed = simulation.tick();
+        }
+        return simulation.getOutcome();
+    }
+
+    //Picks the next step from the current board and hands it to the simulation
+    public void decide() {
+        refreshGoals();
+        measureThreats();
+
+        int px = player.getX(), py = player.getY();
+        int bestDirection = -1;
+        int bestGoal = UNREACHED;
+        int fleeDirection = -1;
+        int fleeThreat = threatAt(py * width + px);
+        for (int d = 0; d < 4; d++) {
+            int nx = px + DX[d], ny = py + DY[d];
+            if (!canEnter(nx, ny)) continue;
+            int next = ny * width + nx;
+            int threat = threatAt(next);
+            if (threat > DANGER_DISTANCE && goalDistance[next] < bestGoal) {
+                bestGoal = goalDistance[next];
+                bestDirection = d;
+            }
+            if (threat > fleeThreat) {
+                fleeThreat = threat;
+                fleeDirection = d;
+            }
+        }
+
+        //Make progress while it is safe, otherwise back away; standing still is the last resort
+        boolean threatened = threatAt(py * width + px) <= DANGER_DISTANCE;
+        int direction = bestDirection >= 0 && (!threatened || bestGoal < goalDistance[py * width + px])
+                ? bestDirection : fleeDirection >= 0 ? fleeDirection : bestDirection;
+        if (direction < 0) {
+            simulation.stopMovement();
+        } else {
+            simulation.setDesiredDirection(DX[direction], DY[direction]);
+        }
+    }
+
+    //The door only opens with every key, so until then it is just another wall
+    private boolean canEnter(int x, int y) {
+        if (!maze.isWalkable(x, y)) return false;
+        return maze.getGround(x, y) != 'D' || player.getKeysCollected() >= maze.getTotalKeys();
+    }
+
+    /* Recomputes the distance from every cell to the nearest goal once a key has been picked up.
+       Traps are avoided unless the player can only get to a goal across one. */
+    private void refreshGoals() {
+        char goal = player.getKeysCollected() >= maze.getTotalKeys() ? 'D' : 'K';
+        if (maze.getVersion() != goalVersion) {
+            goalVersion = maze.getVersion();
+            throughTraps = false;
+            fillGoalDistance(goal);
+        }
+        if (!throughTraps && goalDistance[player.getY() * width + player.getX()] == UNREACHED) {
+            throughTraps = true;
+            fillGoalDistance(goal);
+        }
+    }
+
+    //Breadth-first search outwards from every goal cell at once
+    private void fillGoalDistance(char goal) {
+        Arrays.fill(goalDistance, UNREACHED);
+        int head = 0, tail = 0;
+        for (int i = 0; i < goalDistance.length; i++) {
+            if (!maze.getTerrain().isWall(i) && maze.getGround(i % width, i / width) == goal) {
+                goalDistance[i] = 0;
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = current % width, cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (!maze.isWalkable(nx, ny)) continue;
+                int next = ny * width + nx;
+                if (goalDistance[next] != UNREACHED) continue;
+                char ground = maze.getGround(nx, ny);
+                if (ground == 'D' || (ground == 'T' && !throughTraps)) continue;
+                goalDistance[next] = goalDistance[current] + 1;
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    //Breadth-first search outwards from every monster, stopping THREAT_RADIUS steps out
+    private void measureThreats() {
+        decision++;
+        int head = 0, tail = 0;
+        for (Monster monster : monsters) {
+            int cell = monster.getY() * width + monster.getX();
+            if (threatStamp[cell] == decision) continue;
+            threatStamp[cell] = decision;
+            threatDistance[cell] = 0;
+            queue[tail++] = cell;
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            if (threatDistance[current] == THREAT_RADIUS) continue;
+            int cx = current % width, cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (!maze.isWalkable(nx, ny)) continue;
+                int next = ny * width + nx;
+                if (threatStamp[next] == decision || !PathPolicy.MONSTER.isPassable(maze.getGround(nx, ny))) continue;
+                threatStamp[next] = decision;
+                threatDistance[next] = threatDistance[current] + 1;
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    //Steps from the cell to the nearest monster, or UNREACHED if none is within THREAT_RADIUS
+    private int threatAt(int cell) {
+        return threatStamp[cell] == decision ? threatDistance[cell] : UNREACHED;
+    }
+}
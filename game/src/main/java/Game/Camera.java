@@ -0,0 +1,18 @@
+package Game;
+
+//Scrolling shared by the views that show only part of a large maze
+final class Camera {
+    private Camera() {}
+
+    /* Returns the first visible cell along one axis so the target stays at least a quarter of the
+       view away from either edge, without scrolling past the end of the maze. */
+    static int follow(int camera, int target, int visible, int size) {
+        int margin = visible / 4;
+        if (target < camera + margin) {
+            camera = target - margin;
+        } else if (target >= camera + visible - margin) {
+            camera = target - visible + margin + 1;
+        }
+        return Math.max(0, Math.min(camera, size - visible));
+    }
+}
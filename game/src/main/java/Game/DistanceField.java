@@ -0,0 +1,84 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Breadth-first distance field rooted at a single cell.
+   Every monster-passable cell stores its step count to the root, so a chaser finds
+   its next move by looking at its four neighbours instead of searching the maze.
+   The field is rebuilt only when the root moves or the walkable layout changes. */
+public final class DistanceField {
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
+    private final PathPolicy policy;   //Which cells may be entered
+    private int[] dist = new int[0];   //Steps to the root, -1 if unreachable
+    private int[] queue = new int[0];  //Ring buffer used while rebuilding
+    private int width;
+    private int height;
+
+    public DistanceField() {
+        this(PathPolicy.MONSTER);
+    }
+
+    public DistanceField(PathPolicy policy) {
+        this.policy = policy;
+    }
+
+    //Rebuilds the field from the given root cell
+    public void compute(Maze maze, int rootX, int rootY) {
+        width = maze.getWidth();
+        height = maze.getHeight();
+        int cells = width * height;
+        if (dist.length < cells) {
+            dist = new int[cells];
+            queue = new int[Integer.highestOneBit(Math.max(cells - 1, 1)) << 1];
+        }
+        Arrays.fill(dist, 0, cells, -1);
+
+        int mask = queue.length - 1;
+        int head = 0, tail = 0;
+        int root = rootY * width + rootX;
+        dist[root] = 0;
+        queue[tail++ & mask] = root;
+
+        while (head != tail) {
+            int current = queue[head++ & mask];
+            int cx = current % width;
+            int cy = current / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+
+                int next = ny * width + nx;
+                if (dist[next] >= 0) continue;
+                if (!policy.isPassable(maze.getGround(nx, ny))) continue;
+
+                dist[next] = dist[current] + 1;
+                queue[tail++ & mask] = next;
+            }
+        }
+        GameMetrics.bfs(head);
+    }
+
+    //Returns the number of steps from the cell to the root, or -1 if it cannot reach it
+    public int distanceAt(int x, int y) {
+        return dist[y * width + x];
+    }
+
+    //Returns the flat index of a neighbour one step closer to the root, or -1 if there is none
+    public int stepToward(int x, int y) {
+        int here = dist[y * width + x];
+        if (here <= 0) return -1;
+
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+
+            int next = ny * width + nx;
+            if (dist[next] == here - 1) return next;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,117 @@
+package Game;
+
+/* Headless walk through an endless maze, the game behind TerminalGame's endless mode.
+   The player starts in the top-left corner and steers the same way as in GameSimulation, one
+   step every PLAYER_MOVE_MS while a direction is held. There is no door to reach: the score is
+   the furthest the player has got from the start. Chunks ahead are laid out as the player
+   approaches them, PREFETCH_RADIUS chunks around the player's own, so walking never waits on a
+   chunk being generated in the middle of a frame. Monsters and items are left out, as the
+   pathfinders and the entity layer are built for a maze of fixed size. */
+public final class EndlessSimulation implements PlayerInput.Target {
+    private static final int PLAYER_MOVE_MS = 150;    //Delay between player steps while a key is held
+    private static final int PREFETCH_RADIUS = 2;     //Chunks laid out ahead of the player in each direction
+
+    private final EndlessTerrain terrain;
+    private PlayerInput input;                        //Drained at the start of every tick when set
+
+    private long ticks = 0;
+    private long timeMs = 0;
+    private int movementProgress = PLAYER_MOVE_MS;    //Milliseconds towards the next player step
+    private int playerX = 1, playerY = 1;
+    private int currentDx = 0, currentDy = 0;
+    private int desiredDx = 0, desiredDy = 0;
+    private boolean movementActive = false;
+    private long steps = 0;
+    private int furthest = 0;                         //Largest distance from the start reached, in steps along each axis
+
+    public EndlessSimulation(long seed) {
+        this(new EndlessTerrain(seed));
+    }
+
+    public EndlessSimulation(EndlessTerrain terrain) {
+        this.terrain = terrain;
+        terrain.prefetch(playerX, playerY, PREFETCH_RADIUS); //Only what lies around the start
+    }
+
+    //Feeds key events from the given input into this game, one batch at the start of each tick
+    public void setInput(PlayerInput input) {
+        this.input = input;
+    }
+
+    //Advances the walk by GameSimulation.TICK_MS. Returns true if the player moved.
+    public boolean tick() {
+        if (input != null) {
+            input.apply(this);
+        }
+        ticks++;
+        timeMs += GameSimulation.TICK_MS;
+
+        boolean moved = false;
+        movementProgress += GameSimulation.TICK_MS;
+        while (movementProgress >= PLAYER_MOVE_MS) {
+            if (!movementActive) {
+                movementProgress = PLAYER_MOVE_MS; //Stay ready, so the next press moves on the next tick
+                break;
+            }
+            movementProgress -= PLAYER_MOVE_MS;
+            moved |= stepPlayer();
+        }
+        return moved;
+    }
+
+    private boolean stepPlayer() {
+        //Try turning if possible
+        if (!terrain.isWall(playerX + desiredDx, playerY + desiredDy)) {
+            currentDx = desiredDx;
+            currentDy = desiredDy;
+        }
+
+        //Try moving in current direction
+        if ((currentDx == 0 && currentDy == 0) || terrain.isWall(playerX + currentDx, playerY + currentDy)) return false;
+        playerX += currentDx;
+        playerY += currentDy;
+        steps++;
+        furthest = Math.max(furthest, (playerX - 1) + (playerY - 1));
+        terrain.prefetch(playerX, playerY, PREFETCH_RADIUS);
+        return true;
+    }
+
+    //Sets the direction the player wants to go and starts moving
+    @Override
+    public void setDesiredDirection(int dx, int dy) {
+        desiredDx = dx;
+        desiredDy = dy;
+        movementActive = true;
+    }
+
+    //Stops the player after the current step
+    @Override
+    public void stopMovement() {
+        movementActive = false;
+    }
+
+    @Override
+    public boolean isTurnPending() {
+        return movementActive && (currentDx != desiredDx || currentDy != desiredDy);
+    }
+
+    @Override
+    public boolean isDesiredDirection(int dx, int dy) {
+        return desiredDx == dx && desiredDy == dy;
+    }
+
+    //Symbol of a cell as the front-ends draw it
+    public char getCell(int x, int y) {
+        if (x == playerX && y == playerY) return 'P';
+        return terrain.isWall(x, y) ? '#' : ' ';
+    }
+
+    public EndlessTerrain getTerrain() { return terrain; }
+    public int getPlayerX() { return playerX; }
+    public int getPlayerY() { return playerY; }
+    public long getSteps() { return steps; }
+    public int getFurthest() { return furthest; }
+    public long getTicks() { return ticks; }
+    @Override
+    public long getTimeMillis() { return timeMs; }
+}
@@ -0,0 +1,118 @@
+package Game;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/* The walls of a maze with no right or bottom edge, laid out one chunk at a time as they are needed.
+   Like a Terrain it is built from the chunk templates and has a wall along its top row and left
+   column, but it runs on to the right and downwards for as long as int coordinates reach. Which
+   template a chunk gets is drawn from a Random seeded with the maze seed and the chunk's
+   coordinates, so a chunk comes out the same whenever it is laid out, in any order. Only the most
+   recently used chunks are kept, each as one 36-bit wall mask; the rest are dropped and laid out
+   again if the player comes back, so memory stays the same however far the player walks.
+   Not thread-safe: one game reads it from one thread. */
+public final class EndlessTerrain {
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("maze.endless.chunks", 1024); //-Dmaze.endless.chunks=<n>
+    private static final int SIZE = Terrain.CHUNK_SIZE;
+    private static final long[] TEMPLATE_WALLS = new long[Terrain.CHUNK_TEMPLATES];
+
+    static {
+        for (int i = 0; i < TEMPLATE_WALLS.length; i++) {
+            TEMPLATE_WALLS[i] = Terrain.chunkWalls(i);
+        }
+    }
+
+    private final long seed;
+    private final int capacity;
+    private final LinkedHashMap<Long, Long> chunks; //Wall mask of each chunk held, least recently used first
+    private long lastChunk = -1;                     //Chunk the last lookup went to, read without touching the map
+    private long lastWalls;
+    private long generated = 0, evicted = 0;
+
+    public EndlessTerrain(long seed) {
+        this(seed, DEFAULT_CAPACITY);
+    }
+
+    //Capacity is the most chunks held at once; it should cover at least what is on screen
+    public EndlessTerrain(long seed, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Chunk cache needs room for at least one chunk, got " + capacity);
+        }
+        this.seed = seed;
+        this.capacity = capacity;
+        this.chunks = new LinkedHashMap<Long, Long>(capacity * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() <= EndlessTerrain.this.capacity) return false;
+                evicted++;
+                return true;
+            }
+        };
+    }
+
+    public boolean isWall(int x, int y) {
+        if (x <= 0 || y <= 0) return true; //The outer wall along the top and left, and anything beyond it
+        long walls = chunkWalls(x / SIZE, y / SIZE);
+        return (walls & (1L << ((y % SIZE) * SIZE + x % SIZE))) != 0;
+    }
+
+    //Lays out any missing chunk within the given number of chunks of the cell, nearest ones last so they stay freshest
+    public void prefetch(int x, int y, int radius) {
+        int chunkX = Math.max(0, x) / SIZE, chunkY = Math.max(0, y) / SIZE;
+        for (int ring = radius; ring >= 0; ring--) {
+            for (int dy = -ring; dy <= ring; dy++) {
+                for (int dx = -ring; dx <= ring; dx++) {
+                    if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) continue;
+                    int cx = chunkX + dx, cy = chunkY + dy;
+                    if (cx >= 0 && cy >= 0) chunkWalls(cx, cy);
+                }
+            }
+        }
+    }
+
+    private long chunkWalls(int chunkX, int chunkY) {
+        long key = ((long) chunkY << 32) | chunkX;
+        if (key == lastChunk) return lastWalls;
+        Long walls = chunks.get(key);
+        if (walls == null) {
+            walls = layOut(chunkX, chunkY);
+            chunks.put(key, walls);
+            generated++;
+        }
+        lastChunk = key;
+        lastWalls = walls;
+        return walls;
+    }
+
+    //Picks the chunk's template from its own stream, so the result never depends on which chunks came first
+    private long layOut(int chunkX, int chunkY) {
+        long mixed = seed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL);
+        mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L; //Spread nearby chunks over the whole seed space
+        mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+        mixed ^= mixed >>> 31;
+        return TEMPLATE_WALLS[new Random(mixed).nextInt(TEMPLATE_WALLS.length)];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    //Chunks held right now
+    public int getCachedChunks() {
+        return chunks.size();
+    }
+
+    //Chunks laid out so far, counting every time an evicted chunk was laid out again
+    public long getGeneratedChunks() {
+        return generated;
+    }
+
+    public long getEvictedChunks() {
+        return evicted;
+    }
+}
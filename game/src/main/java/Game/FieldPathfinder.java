@@ -0,0 +1,68 @@
+package Game;
+
+/* Answers searches toward the player from the maze's shared distance field.
+   The field is rebuilt once after the player changes cells and then serves every chaser with a
+   look at four neighbours, so a chase costs one breadth-first pass per player step however many
+   monsters join it. Searches toward any other cell, or under a policy other than the monsters'
+   the field is built with, go to the pathfinder behind it. */
+public final class FieldPathfinder implements Pathfinder {
+    private final PathPolicy policy;
+    private final Pathfinder others;   //Searches toward cells the field is not rooted at
+    private int expanded = 0;
+
+    public FieldPathfinder(PathPolicy policy, Pathfinder others) {
+        this.policy = policy;
+        this.others = others;
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        if (!towardPlayer(targetX, targetY, maze)) {
+            int step = others.firstStep(startX, startY, targetX, targetY, maze);
+            expanded = others.nodesExpanded();
+            return step;
+        }
+        expanded = 0;
+        return maze.stepTowardPlayer(startX, startY);
+    }
+
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        if (!towardPlayer(targetX, targetY, maze)) {
+            int[] path = others.findPath(startX, startY, targetX, targetY, maze);
+            expanded = others.nodesExpanded();
+            return path;
+        }
+        expanded = 0;
+        int length = maze.distanceToPlayer(startX, startY);
+        if (length <= 0) return NO_PATH;
+
+        //Walk down the field one step at a time
+        int width = maze.getWidth();
+        int[] path = new int[length];
+        int x = startX, y = startY;
+        for (int i = 0; i < length; i++) {
+            path[i] = maze.stepTowardPlayer(x, y);
+            x = path[i] % width;
+            y = path[i] / width;
+        }
+        return path;
+    }
+
+    //Only the searches behind it are worth caching; the field answers a step from four neighbours
+    @Override
+    public Pathfinder cached() {
+        return new FieldPathfinder(policy, others.cached());
+    }
+
+    //Nodes the pathfinder behind it expanded for the last call, 0 if the field answered it
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    private boolean towardPlayer(int targetX, int targetY, Maze maze) {
+        Player player = maze.getPlayer();
+        return policy == PathPolicy.MONSTER && player.getX() == targetX && player.getY() == targetY;
+    }
+}
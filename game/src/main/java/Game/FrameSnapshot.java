@@ -0,0 +1,70 @@
+package Game;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+/* Immutable picture of everything the game window shows at one moment: the symbols of the
+   visible cells, the status lines and the minimap. GamePanel captures one on the event thread
+   after the simulation has moved on, and the render thread draws whichever is newest, so
+   drawing never reads the maze while it is being changed. */
+final class FrameSnapshot {
+    private final int width, height;                //Size of the whole picture in pixels
+    private final int viewWidth;                    //Width of the maze viewport in pixels
+    private final int cellSize;
+    private final int columns, rows;
+    private final byte[] cells;                     //Visible symbols in row-major order
+    private final String[] status;                  //Lines shown in the side panel
+    private final BufferedImage minimap;            //Never drawn into once handed to a snapshot
+    private final int minimapX, minimapY, minimapWidth, minimapHeight;
+    private final int outlineX, outlineY, outlineWidth, outlineHeight; //Camera area on the minimap
+
+    FrameSnapshot(int width, int height, int viewWidth, int cellSize, int columns, int rows, byte[] cells,
+                  String[] status, BufferedImage minimap, int minimapX, int minimapY, int minimapWidth,
+                  int minimapHeight, int outlineX, int outlineY, int outlineWidth, int outlineHeight) {
+        this.width = width;
+        this.height = height;
+        this.viewWidth = viewWidth;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.cells = cells;
+        this.status = status;
+        this.minimap = minimap;
+        this.minimapX = minimapX;
+        this.minimapY = minimapY;
+        this.minimapWidth = minimapWidth;
+        this.minimapHeight = minimapHeight;
+        this.outlineX = outlineX;
+        this.outlineY = outlineY;
+        this.outlineWidth = outlineWidth;
+        this.outlineHeight = outlineHeight;
+    }
+
+    //Draws the whole picture, background included, so it can go straight into a fresh back buffer
+    void draw(Graphics g, Color background) {
+        g.setColor(background);
+        g.fillRect(0, 0, width, height);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int left = column * cellSize;
+                int top = row * cellSize;
+                g.setColor(GamePanel.colorOf((char) cells[row * columns + column]));
+                g.fillRect(left, top, cellSize, cellSize);
+                g.setColor(Color.GRAY);
+                g.drawRect(left, top, cellSize, cellSize);
+            }
+        }
+
+        GamePanel.drawKeyLegend(g, viewWidth);
+        g.setColor(Color.BLACK);
+        for (int i = 0; i < status.length; i++) {
+            g.drawString(status[i], viewWidth + 20, GamePanel.STATUS_BASELINES[i]);
+        }
+
+        g.drawImage(minimap, minimapX, minimapY, minimapWidth, minimapHeight, null);
+        g.setColor(Color.MAGENTA);
+        g.drawRect(outlineX, outlineY, outlineWidth, outlineHeight);
+    }
+}
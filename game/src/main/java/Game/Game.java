@@ -4,13 +4,14 @@ import javax.swing.*;
 
 public class Game {
     public static void main(String[] args) {
+        GameMetrics.install();
         SwingUtilities.invokeLater(() -> {
             try {
                 JFrame frame = new JFrame("Escape the Dungeon");
                 frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-                Maze maze = new Maze();
-                GamePanel gamePanel = new GamePanel(maze);
+                GameSimulation simulation = new GameSimulation(new Maze(), GamePanel.runNum);
+                GamePanel gamePanel = new GamePanel(simulation);
                 frame.add(gamePanel);
 
                 frame.pack(); //frame to fit size
@@ -18,6 +19,7 @@ public class Game {
                 frame.setVisible(true);
 
                 gamePanel.requestFocusInWindow(); //keyboard input is registered
+                gamePanel.start();
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -0,0 +1,153 @@
+package Game;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+/* One connection to a GameServer, with a copy of the game it is playing.
+   The copy starts from a SNAPSHOT: the client lays out the terrain from the seed itself and
+   puts the listed cells on top, then applies each DELTA as it arrives. The channel is
+   non-blocking once connected, so a load generator can drive many clients from one Selector:
+   call read() when the channel is readable and flush() until it returns true. Not thread-safe. */
+public final class GameClient implements AutoCloseable {
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(1 << 12);   //Bytes received, in write mode
+    private ByteBuffer out = ByteBuffer.allocate(256);      //Bytes to send, in write mode
+
+    private int width, height;
+    private byte[] cells = new byte[0];                     //Symbol of every cell, row-major
+    private int runNum, totalKeys, keysCollected, elapsedSeconds;
+    private long tick;
+    private GameSimulation.Outcome outcome = null;          //Null until a game has started
+    private long framesReceived = 0, bytesReceived = 0;
+
+    private GameClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    //Connects, waiting until the connection is made, then switches the channel to non-blocking
+    public static GameClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        return new GameClient(channel);
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    //Asks for a new game; the server answers with a snapshot
+    public void start(int width, int height, int monsters, long seed) {
+        frame(GameProtocol.START, 4 + 4 + 4 + 8).putInt(width).putInt(height).putInt(monsters).putLong(seed);
+    }
+
+    public void press(int dx, int dy) {
+        frame(GameProtocol.KEY, 2).put((byte) GameProtocol.direction(dx, dy)).put((byte) 1);
+    }
+
+    public void release(int dx, int dy) {
+        frame(GameProtocol.KEY, 2).put((byte) GameProtocol.direction(dx, dy)).put((byte) 0);
+    }
+
+    public void stop() {
+        frame(GameProtocol.STOP, 0);
+    }
+
+    private ByteBuffer frame(byte type, int size) {
+        if (out.remaining() < 5 + size) {
+            out = ByteBuffer.allocate((out.capacity() + 5 + size) * 2).put(out.flip());
+        }
+        return out.putInt(1 + size).put(type);
+    }
+
+    //Sends what it can of the queued messages; true once all are sent
+    public boolean flush() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    //Reads whatever has arrived and applies every whole frame; false once the server has closed the connection
+    public boolean read() throws IOException {
+        int read;
+        while ((read = channel.read(in)) > 0) {
+            bytesReceived += read;
+            in.flip();
+            ByteBuffer frame;
+            while ((frame = GameProtocol.nextFrame(in, GameProtocol.MAX_FRAME)) != null) {
+                apply(frame);
+                framesReceived++;
+            }
+            in.compact();
+            if (!in.hasRemaining()) {
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in.flip()); //A frame bigger than the buffer is on its way
+            }
+        }
+        return read >= 0;
+    }
+
+    private void apply(ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        switch (type) {
+            case GameProtocol.SNAPSHOT:
+                width = frame.getInt();
+                height = frame.getInt();
+                long seed = frame.getLong();
+                runNum = frame.getInt();
+                totalKeys = frame.getInt();
+                Terrain terrain = Terrain.generate(width, height, seed);
+                cells = new byte[width * height];
+                Arrays.fill(cells, (byte) ' ');
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        if (terrain.isWall(x, y)) cells[y * width + x] = '#';
+                    }
+                }
+                outcome = GameSimulation.Outcome.RUNNING;
+                applyStatus(frame);
+                break;
+            case GameProtocol.DELTA:
+                applyStatus(frame);
+                break;
+            case GameProtocol.OVER:
+                outcome = GameSimulation.Outcome.values()[frame.get()];
+                break;
+            default:
+                throw new IOException("Unknown message type " + type);
+        }
+    }
+
+    private void applyStatus(ByteBuffer frame) {
+        tick = frame.getLong();
+        keysCollected = frame.getInt();
+        elapsedSeconds = frame.getInt();
+        for (int i = frame.getInt(); i > 0; i--) {
+            int cell = frame.getInt();
+            cells[cell] = frame.get();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public char getCell(int x, int y) {
+        return (char) cells[y * width + x];
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getRunNum() { return runNum; }
+    public int getTotalKeys() { return totalKeys; }
+    public int getKeysCollected() { return keysCollected; }
+    public int getElapsedSeconds() { return elapsedSeconds; }
+    public long getTick() { return tick; }
+    public GameSimulation.Outcome getOutcome() { return outcome; }
+    public long getFramesReceived() { return framesReceived; }
+    public long getBytesReceived() { return bytesReceived; }
+}
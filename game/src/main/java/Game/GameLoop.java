@@ -0,0 +1,100 @@
+package Game;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/* Fixed-timestep clock that drives one game.
+   A single thread wakes every tick, works out how many ticks of real time are due and hands
+   them to the frame on the given executor, for example the Swing event thread. Only one batch is
+   in flight at a time: if the executor falls behind, later ticks are added to the next batch
+   instead of piling up, and anything past MAX_CATCH_UP ticks is dropped rather than replayed in
+   a burst. The loop runs from start() until stop() is called or the frame reports the game is
+   over, and then its thread ends, so nothing keeps running against a finished game. */
+public final class GameLoop {
+    private static final int MAX_CATCH_UP = 25; //Most ticks run at once after a stall
+
+    //Advances the game by the given number of ticks; returns false once the game is over
+    public interface Frame {
+        boolean advance(int ticks);
+    }
+
+    private final long tickNanos;
+    private final int tickMillis;
+    private final Executor executor;
+    private final Frame frame;
+    private final AtomicBoolean inFlight = new AtomicBoolean(); //A batch is waiting on or running in the executor
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GameLoop(int tickMillis, Executor executor, Frame frame) {
+        this.tickMillis = tickMillis;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.executor = executor;
+        this.frame = frame;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    //Stops the loop; ticks already handed to the executor are skipped. Safe to call from any thread.
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    //Waits until the loop has stopped
+    public void join() throws InterruptedException {
+        Thread current = thread;
+        if (current != null) {
+            current.join();
+        }
+    }
+
+    private void run() {
+        long last = System.nanoTime();
+        long owed = 0; //Ticks due but not yet handed over
+        while (running) {
+            long wait = last + tickNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            GameMetrics.timerFired(tickMillis);
+
+            long now = System.nanoTime();
+            long due = (now - last) / tickNanos;
+            last += due * tickNanos;
+            owed = Math.min(owed + due, MAX_CATCH_UP);
+
+            if (inFlight.compareAndSet(false, true)) {
+                int ticks = (int) owed;
+                owed = 0;
+                executor.execute(() -> runFrame(ticks));
+            }
+        }
+    }
+
+    private void runFrame(int ticks) {
+        try {
+            if (running && !frame.advance(ticks)) {
+                stop();
+            }
+        } finally {
+            inFlight.set(false);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package Game;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/* Timing and work counters for the game loop, published over JMX.
+   Recording is switched on with -Dmaze.metrics=true. ENABLED is a constant, so when it is off
+   the JIT removes the calls and the hot paths pay nothing. -Dmaze.metrics.log=<seconds> also
+   prints a summary line to stderr at that interval. Every recorder is thread-safe, because
+   monsters may decide their moves on several threads. */
+public final class GameMetrics implements GameMetricsMXBean {
+    static final boolean ENABLED = Boolean.getBoolean("maze.metrics");
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    private static boolean installed = false;
+
+    private final LatencyHistogram tick = new LatencyHistogram();
+    private final LatencyHistogram monsterStep = new LatencyHistogram();
+    private final LatencyHistogram pathfind = new LatencyHistogram();
+    private final LatencyHistogram paint = new LatencyHistogram();
+    private final LatencyHistogram timerInterval = new LatencyHistogram(); //Time between real-time timer firings
+    private final LongAdder bfsSearches = new LongAdder();
+    private final LongAdder bfsNodes = new LongAdder();
+    private volatile long lastTimerFire = 0;
+    private volatile int expectedIntervalMillis = GameSimulation.TICK_MS;
+    private volatile int runNum = 0;
+    private volatile int monsterDelay = 0;
+
+    private GameMetrics() {}
+
+    //Registers the MBean and starts the log line if metrics are enabled; safe to call more than once
+    public static synchronized void install() {
+        if (!ENABLED || installed) return;
+        installed = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName("Game:type=GameMetrics"));
+        } catch (JMException e) {
+            System.err.println("Could not register game metrics: " + e.getMessage());
+        }
+
+        long logSeconds = Long.getLong("maze.metrics.log", 0);
+        if (logSeconds > 0) {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-metrics-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(() -> System.err.println(INSTANCE.summary()), logSeconds, logSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    //Start time for the recorders below, or 0 when metrics are off
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    static void tick(long started) {
+        if (ENABLED) INSTANCE.tick.record(System.nanoTime() - started);
+    }
+
+    static void monsterStep(long started) {
+        if (ENABLED) INSTANCE.monsterStep.record(System.nanoTime() - started);
+    }
+
+    static void pathfind(long started) {
+        if (ENABLED) INSTANCE.pathfind.record(System.nanoTime() - started);
+    }
+
+    static void paint(long started) {
+        if (ENABLED) INSTANCE.paint.record(System.nanoTime() - started);
+    }
+
+    //Counts one path search and the cells it took off its queue or open list
+    static void bfs(int nodesExpanded) {
+        if (ENABLED) {
+            INSTANCE.bfsSearches.increment();
+            INSTANCE.bfsNodes.add(nodesExpanded);
+        }
+    }
+
+    //Called each time a real-time timer meant to fire every intervalMillis goes off
+    static void timerFired(int intervalMillis) {
+        if (!ENABLED) return;
+        long now = System.nanoTime();
+        long last = INSTANCE.lastTimerFire;
+        INSTANCE.lastTimerFire = now;
+        INSTANCE.expectedIntervalMillis = intervalMillis;
+        if (last != 0) {
+            INSTANCE.timerInterval.record(now - last);
+        }
+    }
+
+    //Notes the settings of the game now being played
+    static void gameStarted(int runNum, int monsterDelay) {
+        if (ENABLED) {
+            INSTANCE.runNum = runNum;
+            INSTANCE.monsterDelay = monsterDelay;
+            INSTANCE.lastTimerFire = 0; //The pause between games is not timer drift
+        }
+    }
+
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    @Override public LatencyHistogram.Snapshot getTickLatency() { return tick.snapshot(); }
+    @Override public LatencyHistogram.Snapshot getMonsterStepLatency() { return monsterStep.snapshot(); }
+    @Override public LatencyHistogram.Snapshot getPathfindLatency() { return pathfind.snapshot(); }
+    @Override public LatencyHistogram.Snapshot getPaintLatency() { return paint.snapshot(); }
+    @Override public LatencyHistogram.Snapshot getTimerInterval() { return timerInterval.snapshot(); }
+    @Override public long getBfsSearches() { return bfsSearches.sum(); }
+    @Override public long getBfsNodesExpanded() { return bfsNodes.sum(); }
+    @Override public int getRunNum() { return runNum; }
+    @Override public int getMonsterDelayMillis() { return monsterDelay; }
+
+    //How much later than scheduled the timer fires on average
+    @Override
+    public double getTimerDriftMicros() {
+        if (timerInterval.getCount() == 0) return 0;
+        return timerInterval.getMeanNanos() / 1000.0 - expectedIntervalMillis * 1000.0;
+    }
+
+    //Spread between a typical and a slow timer interval
+    @Override
+    public double getTimerJitterMicros() {
+        return (timerInterval.percentileNanos(0.99) - timerInterval.percentileNanos(0.5)) / 1000.0;
+    }
+
+    @Override
+    public void reset() {
+        tick.reset();
+        monsterStep.reset();
+        pathfind.reset();
+        paint.reset();
+        timerInterval.reset();
+        bfsSearches.reset();
+        bfsNodes.reset();
+    }
+
+    public String summary() {
+        long searches = bfsSearches.sum();
+        return String.format("run %d, monster delay %dms | tick %s | monsters %s | pathfind %s | paint %s"
+                        + " | bfs %d searches, %.0f nodes each | timer drift %.0fus, jitter %.0fus",
+                runNum, monsterDelay, tick.snapshot(), monsterStep.snapshot(), pathfind.snapshot(), paint.snapshot(),
+                searches, searches == 0 ? 0.0 : (double) bfsNodes.sum() / searches,
+                getTimerDriftMicros(), getTimerJitterMicros());
+    }
+}
@@ -0,0 +1,19 @@
+package Game;
+
+//Management interface of GameMetrics, shown in JConsole or VisualVM under Game:type=GameMetrics
+public interface GameMetricsMXBean {
+    LatencyHistogram.Snapshot getTickLatency();
+    LatencyHistogram.Snapshot getMonsterStepLatency();
+    LatencyHistogram.Snapshot getPathfindLatency();
+    LatencyHistogram.Snapshot getPaintLatency();
+    LatencyHistogram.Snapshot getTimerInterval();
+
+    long getBfsSearches();
+    long getBfsNodesExpanded();
+    double getTimerDriftMicros();
+    double getTimerJitterMicros();
+    int getRunNum();
+    int getMonsterDelayMillis();
+
+    void reset();
+}
@@ -0,0 +1,484 @@
+package Game;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.swing.JPanel;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.JFrame;
+
+public class GamePanel extends JPanel implements KeyListener {
+    private final GameSimulation simulation;
+    private final PlayerInput input = new PlayerInput(); //Key events wait here for the next tick
+    private final Maze maze;
+    private static final int VIEW_CELLS = 25;              //Cells visible across the viewport at the closest zoom
+    private static final int[] ZOOM_LEVELS = {10, 20, 40}; //Cell sizes in pixels, furthest zoom first
+    private static final int MINIMAP_TOP = 300;            //Vertical position of the minimap in the side panel
+    private static final int MINIMAP_SIZE = 130;           //Largest side of the minimap in pixels
+    static final int[] STATUS_BASELINES = {40, 237, 255, 275}; //Where active rendering writes each status line
+
+    //-Dmaze.render=active draws on a render thread through a BufferStrategy, capped at -Dmaze.fps frames a second
+    private static final boolean ACTIVE_RENDERING = "active".equals(System.getProperty("maze.render"));
+    private static final int FPS_CAP = Integer.getInteger("maze.fps", 60);
+
+    private int zoom = ZOOM_LEVELS.length - 1;
+    private int cellSize = ZOOM_LEVELS[zoom];
+    private final int viewWidth;                           //Viewport size in pixels, independent of maze size
+    private final int viewHeight;
+    private int cameraX = 0, cameraY = 0;                  //Top-left cell shown in the viewport
+    private final Minimap minimap;
+    private final JLabel statusLabel;
+    private final JLabel runLabel;
+    private final JLabel timerLabel;
+    private final JLabel monsterStatusLabel;
+    private final GameLoop loop;                           //Ticks the simulation on the event thread while this run lasts
+    private Thread recordingHook;                          //Closes the replay if the JVM exits mid-run
+    private BufferedImage viewLayer;          //Cached drawing of the visible cells, patched as cells change
+    private final ActiveRenderer renderer;                 //Set when rendering actively, null when Swing paints the panel
+    private boolean frameDirty = true;                     //Something visible changed since the last snapshot
+    private BufferedImage minimapCopy;                     //Minimap pixels shared by snapshots until the minimap changes
+
+    public static int runNum = 0;
+
+    public GamePanel(GameSimulation simulation) {
+        if (GamePanel.runNum == 0) {
+            String tutorialMessage = """
+                You are trapped in a dungeon with a monster.
+                You must escape by collecting all four yellow keys and escaping through the green door.
+                
+                There are twelve orange traps scattered around the maze.
+                Stepping in one will freeze you in place for one second, destroying the trap.
+                The monster can also step in traps, but it is not frozen by them.
+                
+                The monster can hear you if you are close to it, and see you if you are within its line of sight.
+                
+                Once time is up, the game is not over, but the monster will become enraged and know where you are constantly.
+                
+                Once you have escaped, you will be in the maze again. Because you cannot escape.
+                It is slow now, but every time you escape, it will be faster and faster, until eventually you cannot outrun it.
+                
+                Good luck.
+                """;
+        
+            JOptionPane.showMessageDialog(this, tutorialMessage, "Tutorial", JOptionPane.INFORMATION_MESSAGE);
+        }
+        
+        this.simulation = simulation;
+        this.maze = simulation.getMaze();
+        simulation.setInput(input);
+        viewWidth = Math.min(maze.getWidth(), VIEW_CELLS) * cellSize;
+        viewHeight = Math.min(maze.getHeight(), VIEW_CELLS) * cellSize;
+        minimap = new Minimap(maze, MINIMAP_SIZE);
+        setPreferredSize(new Dimension(viewWidth + 150, Math.max(viewHeight, MINIMAP_TOP + MINIMAP_SIZE + 20)));
+        setFocusable(true);
+        addKeyListener(this);
+        setLayout(null);
+
+        //The canvas covers the whole panel and draws the status lines itself, so the labels are left out
+        renderer = ACTIVE_RENDERING ? new ActiveRenderer(FPS_CAP) : null;
+        if (renderer != null) {
+            renderer.getCanvas().setBounds(0, 0, getPreferredSize().width, getPreferredSize().height);
+            renderer.getCanvas().addKeyListener(this);
+            this.add(renderer.getCanvas());
+        }
+
+        //Status label: shows how many keys have been collected
+        statusLabel = new JLabel("Keys Collected: 0 / " + maze.getTotalKeys());
+        statusLabel.setBounds(viewWidth + 20, 20, 150, 30);
+
+        //Displays current run count
+        runLabel = new JLabel("Runs Completed: " + runNum);
+        runLabel.setBounds(viewWidth + 20, 60, 150, 345);
+
+        //Displays elapsed time
+        timerLabel = new JLabel("Time: 0s");
+        timerLabel.setBounds(viewWidth + 20, 100, 150, 300);
+
+        //Label showing monster status
+        monsterStatusLabel = new JLabel(" ");
+        monsterStatusLabel.setBounds(viewWidth + 20, 140, 150, 260);
+
+        if (renderer == null) {
+            this.add(statusLabel);
+            this.add(runLabel);
+            this.add(timerLabel);
+            this.add(monsterStatusLabel);
+        }
+
+        simulation.setListener(new GameSimulation.Listener() {
+            @Override
+            public void keyCollected(int collected, int total) {
+                statusLabel.setText("Keys Collected: " + collected + " / " + total);
+                frameDirty = true;
+            }
+
+            @Override
+            public void secondElapsed(int seconds) {
+                timerLabel.setText("Time remaining: " + Math.max(0, GameSimulation.RAGE_SECONDS - seconds) + "s");
+                frameDirty = true;
+            }
+
+            @Override
+            public void enraged() {
+                System.out.println("Monster is enraged!");
+                monsterStatusLabel.setText("Monster is enraged!");
+                frameDirty = true;
+            }
+
+            @Override
+            public void doorLocked() {
+                JOptionPane.showMessageDialog(GamePanel.this, "You need all the keys before escaping!", "Door Locked", JOptionPane.WARNING_MESSAGE);
+            }
+
+            @Override
+            public void caught() {
+                refresh();
+            }
+        });
+
+        //Only cells the maze reports as changed get redrawn
+        maze.setCellListener(this::cellChanged);
+
+        //Drives the simulation in real time; the rules themselves live in GameSimulation
+        loop = new GameLoop(GameSimulation.TICK_MS, SwingUtilities::invokeLater, ticks -> {
+            for (int i = 0; i < ticks && !simulation.isFinished(); i++) {
+                simulation.tick();
+            }
+            followPlayer();
+            if (renderer != null && frameDirty) {
+                publishFrame();
+            }
+            if (simulation.isFinished()) {
+                SwingUtilities.invokeLater(this::gameEnded); //After the tick, so the replay gets its end record first
+                return false;
+            }
+            return true;
+        });
+        followPlayer();
+
+        requestFocusInWindow(); //Force focus for key input
+    }
+
+    //Starts feeding real time into the simulation
+    public void start() {
+        startRecording();
+        if (renderer != null) {
+            publishFrame();
+            renderer.start();
+            renderer.getCanvas().requestFocusInWindow();
+        }
+        loop.start();
+    }
+
+    //Stops the game loop and render thread when the panel leaves its window, e.g. when the frame is disposed for the next run
+    @Override
+    public void removeNotify() {
+        loop.stop();
+        if (renderer != null) {
+            renderer.stop();
+        }
+        super.removeNotify();
+    }
+
+    //Shows the current state: hands a snapshot to the render thread, or asks Swing to repaint
+    private void refresh() {
+        if (renderer != null) {
+            publishFrame();
+        } else {
+            repaint();
+        }
+    }
+
+    //Captures what the window should show into an immutable snapshot for the render thread
+    private void publishFrame() {
+        int columns = visibleColumns();
+        int rows = visibleRows();
+        byte[] cells = new byte[columns * rows];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                cells[row * columns + column] = (byte) maze.getCell(cameraX + column, cameraY + row);
+            }
+        }
+        if (minimapCopy == null) {
+            minimapCopy = minimap.copyImage();
+        }
+        String[] status = {statusLabel.getText(), runLabel.getText(), timerLabel.getText(), monsterStatusLabel.getText()};
+        Dimension size = getPreferredSize();
+        Rectangle bounds = minimapBounds();
+        Rectangle outline = cameraOutline();
+        renderer.publish(new FrameSnapshot(size.width, size.height, viewWidth, cellSize, columns, rows, cells, status,
+                minimapCopy, bounds.x, bounds.y, bounds.width, bounds.height,
+                outline.x, outline.y, outline.width, outline.height));
+        frameDirty = false;
+    }
+
+    //Records the game to a replay file when -Dmaze.record=<directory> is given
+    private void startRecording() {
+        String directory = System.getProperty("maze.record");
+        if (directory == null) return;
+        Path file = Paths.get(directory, "maze-" + maze.getSeed() + "-run" + runNum + ".mzr");
+        try {
+            Files.createDirectories(file.getParent());
+            ReplayRecorder recorder = new ReplayRecorder(file);
+            simulation.setRecorder(recorder);
+            recordingHook = new Thread(recorder::close); //Keeps a game quit part way through
+            Runtime.getRuntime().addShutdownHook(recordingHook);
+        } catch (IOException e) {
+            System.err.println("Could not record to " + file + ": " + e.getMessage());
+        }
+    }
+
+    //Ends the run once the simulation has finished: the recorder has closed the replay by now
+    private void gameEnded() {
+        if (recordingHook != null) {
+            Runtime.getRuntime().removeShutdownHook(recordingHook); //Lets this run's recorder be collected
+            recordingHook = null;
+        }
+        if (simulation.getOutcome() == GameSimulation.Outcome.CAUGHT) {
+            JOptionPane.showMessageDialog(this, "GAME OVER! The monster caught you!", "Game Over", JOptionPane.INFORMATION_MESSAGE);
+            System.exit(0);
+        } else {
+            playAgain();
+        }
+    }
+
+    //Offers another run after the player escapes
+    private void playAgain() {
+        int response = JOptionPane.showConfirmDialog(this, "YOU ESCAPED! Play again?", "Victory", JOptionPane.YES_NO_OPTION);
+        if (response == JOptionPane.YES_OPTION) {
+            runNum++; //Track number of runs
+            JFrame topFrame = (JFrame) SwingUtilities.getWindowAncestor(this);
+            topFrame.dispose();
+            SwingUtilities.invokeLater(() -> {
+                JFrame newFrame = new JFrame("Escape the Dungeon");
+                GamePanel newPanel = new GamePanel(new GameSimulation(new Maze(), runNum));
+                newFrame.add(newPanel);
+                newFrame.pack();
+                newFrame.setLocationRelativeTo(null);
+                newFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                newFrame.setVisible(true);
+                newPanel.start();
+            });
+        } else {
+            System.exit(0);
+        }
+    }
+
+    //Paints the visible part of the maze, the legend and the minimap on the side.
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer != null) return; //The canvas covers the panel and the render thread draws it
+        long started = GameMetrics.start();
+
+        if (viewLayer == null) {
+            buildViewLayer();
+        }
+        g.drawImage(viewLayer, 0, 0, null);
+
+        //The side panel only changes with the camera, so skip it when only maze cells are being repainted
+        Rectangle clip = g.getClipBounds();
+        if (clip == null || clip.x + clip.width > viewWidth) {
+            drawKeyLegend(g, viewWidth);
+            drawMinimap(g);
+        }
+        GameMetrics.paint(started);
+    }
+
+    //Draws the cells inside the camera into the cached viewport layer
+    private void buildViewLayer() {
+        viewLayer = new BufferedImage(viewWidth + 1, viewHeight + 1, BufferedImage.TYPE_INT_RGB);
+        Graphics g = viewLayer.getGraphics();
+        g.setColor(getBackground());
+        g.fillRect(0, 0, viewLayer.getWidth(), viewLayer.getHeight());
+
+        int endX = cameraX + visibleColumns();
+        int endY = cameraY + visibleRows();
+        for (int y = cameraY; y < endY; y++) {
+            for (int x = cameraX; x < endX; x++) {
+                drawCell(g, x, y);
+            }
+        }
+        g.dispose();
+    }
+
+    //Patches one changed cell in the caches and repaints just the affected rectangles; with active rendering it only marks the frame
+    private void cellChanged(int x, int y) {
+        if (renderer != null) {
+            if (minimap.cellChanged(x, y)) {
+                minimapCopy = null;
+            }
+            frameDirty = true;
+            return;
+        }
+
+        if (minimap.cellChanged(x, y)) {
+            Rectangle block = minimap.blockBounds(x, y);
+            block.translate(viewWidth + 10, MINIMAP_TOP);
+            repaint(block);
+        }
+
+        if (x < cameraX || y < cameraY || x >= cameraX + visibleColumns() || y >= cameraY + visibleRows()) {
+            return;
+        }
+        if (viewLayer != null) {
+            Graphics g = viewLayer.getGraphics();
+            drawCell(g, x, y);
+            g.dispose();
+        }
+        repaint(new Rectangle((x - cameraX) * cellSize, (y - cameraY) * cellSize, cellSize + 1, cellSize + 1));
+    }
+
+    //Scrolls the camera once the player gets within a quarter of the viewport from its edge
+    private void followPlayer() {
+        Player player = maze.getPlayer();
+        int newX = Camera.follow(cameraX, player.getX(), visibleColumns(), maze.getWidth());
+        int newY = Camera.follow(cameraY, player.getY(), visibleRows(), maze.getHeight());
+        if (newX != cameraX || newY != cameraY) {
+            cameraX = newX;
+            cameraY = newY;
+            viewLayer = null;
+            frameDirty = true;
+            if (renderer == null) {
+                repaint();
+            }
+        }
+    }
+
+    private int visibleColumns() {
+        return Math.min(maze.getWidth(), viewWidth / cellSize);
+    }
+
+    private int visibleRows() {
+        return Math.min(maze.getHeight(), viewHeight / cellSize);
+    }
+
+    //Steps between zoom levels and redraws the viewport around the player
+    private void changeZoom(int step) {
+        int newZoom = Math.max(0, Math.min(ZOOM_LEVELS.length - 1, zoom + step));
+        if (newZoom == zoom) return;
+        zoom = newZoom;
+        cellSize = ZOOM_LEVELS[zoom];
+        viewLayer = null;
+        followPlayer();
+        refresh();
+    }
+
+    //Draws the minimap with the camera's area outlined
+    private void drawMinimap(Graphics g) {
+        Rectangle bounds = minimapBounds();
+        minimap.draw(g, bounds.x, bounds.y);
+
+        Rectangle outline = cameraOutline();
+        g.setColor(Color.MAGENTA);
+        g.drawRect(outline.x, outline.y, outline.width, outline.height);
+    }
+
+    //Area of the minimap the camera is showing
+    private Rectangle cameraOutline() {
+        Rectangle bounds = minimapBounds();
+        double scale = minimap.getCellScale();
+        return new Rectangle(bounds.x + (int)(cameraX * scale), bounds.y + (int)(cameraY * scale),
+                (int)Math.ceil(visibleColumns() * scale), (int)Math.ceil(visibleRows() * scale));
+    }
+
+    private Rectangle minimapBounds() {
+        return new Rectangle(viewWidth + 10, MINIMAP_TOP, minimap.getPixelWidth(), minimap.getPixelHeight());
+    }
+
+    //Draws a cell at its position relative to the camera
+    private void drawCell(Graphics g, int x, int y) {
+        int left = (x - cameraX) * cellSize;
+        int top = (y - cameraY) * cellSize;
+        g.setColor(colorOf(maze.getCell(x, y)));
+        g.fillRect(left, top, cellSize, cellSize);
+        g.setColor(Color.GRAY);
+        g.drawRect(left, top, cellSize, cellSize);
+    }
+
+    //Colour used for each maze symbol
+    static Color colorOf(char cell) {
+        switch (cell) {
+            case '#': return Color.BLACK;
+            case ' ': return Color.WHITE;
+            case 'P': return Color.BLUE;
+            case 'K': return Color.YELLOW;
+            case 'T': return Color.ORANGE;
+            case 'M': return Color.RED;
+            case 'D': return Color.GREEN;
+            default:  return Color.PINK;
+        }
+    }
+
+    //Prints the legend explaining each game symbol beside a viewport of the given width
+    static void drawKeyLegend(Graphics g, int viewWidth) {
+        g.setColor(Color.BLACK);
+        g.drawString("KEY LEGEND:", viewWidth + 20, 60);
+
+        g.setColor(Color.BLUE);
+        g.fillRect(viewWidth + 20, 80, 20, 20);
+        g.setColor(Color.BLACK);
+        g.drawString("Player (P)", viewWidth + 50, 95);
+
+        g.setColor(Color.YELLOW);
+        g.fillRect(viewWidth + 20, 110, 20, 20);
+        g.setColor(Color.BLACK);
+        g.drawString("Key (K)", viewWidth + 50, 125);
+
+        g.setColor(Color.RED);
+        g.fillRect(viewWidth + 20, 140, 20, 20);
+        g.setColor(Color.BLACK);
+        g.drawString("Monster (M)", viewWidth + 50, 155);
+
+        g.setColor(Color.ORANGE);
+        g.fillRect(viewWidth + 20, 170, 20, 20);
+        g.setColor(Color.BLACK);
+        g.drawString("Trap (T)", viewWidth + 50, 185);
+
+        g.setColor(Color.GREEN);
+        g.fillRect(viewWidth + 20, 200, 20, 20);
+        g.setColor(Color.BLACK);
+        g.drawString("Door (D)", viewWidth + 50, 215);
+    }
+
+    //Handle keyboard input
+    @Override
+    public void keyPressed(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_W: input.press(0, -1); break;
+            case KeyEvent.VK_S: input.press(0, 1); break;
+            case KeyEvent.VK_A: input.press(-1, 0); break;
+            case KeyEvent.VK_D: input.press(1, 0); break;
+            case KeyEvent.VK_EQUALS:
+            case KeyEvent.VK_ADD: changeZoom(1); break;
+            case KeyEvent.VK_MINUS:
+            case KeyEvent.VK_SUBTRACT: changeZoom(-1); break;
+        }
+    }
+
+
+    //Only direction keys let go of a direction; releasing zoom or any other key keeps the player moving
+    @Override
+    public void keyReleased(KeyEvent e) {
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_W: input.release(0, -1); break;
+            case KeyEvent.VK_S: input.release(0, 1); break;
+            case KeyEvent.VK_A: input.release(-1, 0); break;
+            case KeyEvent.VK_D: input.release(1, 0); break;
+        }
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {}
+}
\ No newline at end of file
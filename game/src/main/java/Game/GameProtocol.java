@@ -0,0 +1,62 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/* Messages between GameServer and GameClient over TCP.
+   Every message is a frame: an int with the length of the rest, a type byte, then the fields in
+   big-endian order. The client sends START to begin a game, then KEY and STOP as the player
+   presses keys. The server answers START with SNAPSHOT, which holds the maze seed, so the client
+   lays out the same terrain itself, and every cell that is not plain wall or floor. After that it
+   only sends DELTA when something changed: the tick, the status and each cell whose symbol
+   changed, which covers the player and monsters moving. OVER ends the game; START plays the
+   next one on the same connection. KEY and STOP sent outside a game are dropped. The seed in
+   SNAPSHOT is the one the maze was built from, which differs from START's when that seed's
+   maze could not be won.
+
+   SNAPSHOT: width int, height int, seed long, run int, total keys int, then a status block
+   DELTA:    a status block
+   Status:   tick long, keys collected int, elapsed seconds int, cell count int,
+             then per cell its row-major index int and symbol byte
+   OVER:     outcome byte, the ordinal of GameSimulation.Outcome */
+final class GameProtocol {
+    static final int MAX_FRAME = 1 << 24;   //Largest frame either side accepts, a full snapshot of a big maze included
+
+    //Client to server
+    static final byte START = 1;            //width int, height int, monsters int, seed long
+    static final byte KEY = 2;              //direction byte, pressed byte (1 pressed, 0 released)
+    static final byte STOP = 3;             //no fields
+
+    //Server to client
+    static final byte SNAPSHOT = 1;
+    static final byte DELTA = 2;
+    static final byte OVER = 3;
+
+    static final int[] DX = {0, 0, -1, 1};  //Directions as KEY sends them: up, down, left, right
+    static final int[] DY = {-1, 1, 0, 0};
+
+    private GameProtocol() {}
+
+    static int direction(int dx, int dy) {
+        for (int d = 0; d < DX.length; d++) {
+            if (DX[d] == dx && DY[d] == dy) return d;
+        }
+        throw new IllegalArgumentException("Not a direction: " + dx + "," + dy);
+    }
+
+    /* Returns the next whole frame in a buffer in read mode, from its type byte to its end, and
+       moves the buffer past it. Returns null and leaves the buffer alone if the frame has not
+       fully arrived yet. */
+    static ByteBuffer nextFrame(ByteBuffer buffer, int maxFrame) throws IOException {
+        if (buffer.remaining() < 4) return null;
+        int length = buffer.getInt(buffer.position());
+        if (length < 1 || length > maxFrame) {
+            throw new IOException("Bad frame length " + length);
+        }
+        if (buffer.remaining() < 4 + length) return null;
+        int start = buffer.position() + 4;
+        ByteBuffer frame = buffer.slice(start, length);
+        buffer.position(start + length);
+        return frame;
+    }
+}
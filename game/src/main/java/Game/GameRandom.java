@@ -0,0 +1,39 @@
+package Game;
+
+import java.util.Random;
+
+/* Random number generator whose state can be saved and restored.
+   Uses the same linear congruential generator as java.util.Random, so it produces exactly the
+   numbers a Random with the same seed would, but exposes the 48-bit state for replay keyframes
+   and snapshots. Not thread-safe; every monster owns its own instance. */
+public final class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int)(state >>> (48 - bits));
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
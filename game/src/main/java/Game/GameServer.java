@@ -0,0 +1,513 @@
+package Game;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/* Hosts many games at once, one per TCP connection, speaking GameProtocol.
+   One thread owns the Selector: it accepts connections, reads key presses into each session's
+   PlayerInput and writes whatever the sessions have queued. The games themselves run on a fixed
+   pool of workers. Every session belongs to one shard and every shard to one worker for the
+   length of a tick, so a game is only ever touched by one thread at a time and needs no locks;
+   only the bytes waiting to be sent are shared with the selector thread. A single GameLoop
+   drives all shards in step. After each tick a session sends the cells that changed, or nothing
+   if none did. A client that falls MAX_PENDING bytes behind is dropped.
+   Usage: GameServer [port [workers]] */
+public final class GameServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7373;
+    public static final int MAX_SIDE = Integer.getInteger("maze.server.maxSize", 256); //-Dmaze.server.maxSize=<cells>
+    private static final int MAX_PENDING = 1 << 20;  //Bytes a session may have waiting before it is dropped
+    private static final int MAX_CLIENT_FRAME = 64;  //Nothing a client sends is longer
+    private static final int REPORT_SECONDS = 5;
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Shard[] shards;
+    private final ExecutorService workers;
+    private final List<Callable<Void>> shardTasks;
+    private final GameLoop loop;
+    private final Queue<Session> flushes = new ConcurrentLinkedQueue<>(); //Sessions with bytes to send or to close
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final LatencyHistogram tickLatency = new LatencyHistogram(); //Time to advance every session once
+    private final LongAdder busyNanos = new LongAdder();     //Worker time spent on shards
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private volatile boolean running = false;
+    private Thread ioThread;
+    private int nextShard = 0;
+    private long lastReport = System.nanoTime();
+
+    //Binds to the port, 0 for any free one; start() begins serving
+    public GameServer(int port, int workerCount) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("A server needs at least one worker, got " + workerCount);
+        }
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.shards = new Shard[workerCount];
+        this.shardTasks = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            shards[i] = new Shard();
+            shardTasks.add(shards[i]);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "server-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loop = new GameLoop(GameSimulation.TICK_MS, Runnable::run, this::advance);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length >= 1 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workerCount = args.length >= 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (GameServer server = new GameServer(port, workerCount)) {
+            server.start();
+            System.out.println("Serving on port " + server.getPort() + " with " + workerCount + " workers");
+            while (server.running) {
+                TimeUnit.SECONDS.sleep(REPORT_SECONDS);
+                System.out.println(server.report());
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        ioThread = new Thread(this::serve, "server-io");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        loop.start();
+    }
+
+    //Stops ticking and closes every connection
+    @Override
+    public void close() {
+        running = false;
+        loop.stop();
+        selector.wakeup();
+        Thread current = ioThread;
+        if (current != null) {
+            try {
+                current.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.shutdown();
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            server.close();
+        } catch (IOException e) {
+            //Closing anyway; nothing left to tell the clients
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /* One line on load since the last report: sessions, tick latency across all of them, how busy
+       the workers were and how many sessions a fully busy core would carry at that rate. */
+    public synchronized String report() {
+        long now = System.nanoTime();
+        double seconds = (now - lastReport) / 1e9;
+        double busyCores = busyNanos.sumThenReset() / 1e9 / seconds;
+        int sessions = sessionCount.get();
+        String line = String.format("%d sessions | tick %s | %.2f cores busy, %.0f sessions per core"
+                        + " | %.0f frames/s, %.1f KB/s out | %d games finished",
+                sessions, tickLatency.snapshot(), busyCores, busyCores > 0 ? sessions / busyCores : 0.0,
+                framesSent.sumThenReset() / seconds, bytesSent.sumThenReset() / seconds / 1024,
+                gamesFinished.sumThenReset());
+        tickLatency.reset();
+        lastReport = now;
+        return line;
+    }
+
+    //Runs on the loop thread: every shard advances its sessions on its own worker
+    private boolean advance(int ticks) {
+        long started = System.nanoTime();
+        for (Shard shard : shards) {
+            shard.ticks = ticks;
+        }
+        try {
+            workers.invokeAll(shardTasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        tickLatency.record(System.nanoTime() - started);
+        if (!flushes.isEmpty()) {
+            selector.wakeup();
+        }
+        return running;
+    }
+
+    //Runs on the selector thread until the server closes
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Session session;
+                while ((session = flushes.poll()) != null) {
+                    session.queued.set(false);
+                    flush(session);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    session = (Session) key.attachment();
+                    if (key.isReadable()) read(session);
+                    if (key.isValid() && key.isWritable()) flush(session);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            running = false;
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true); //Deltas are small and late ones are useless
+            Session session = new Session(channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessionCount.incrementAndGet();
+            shards[nextShard].joining.add(session);
+            nextShard = (nextShard + 1) % shards.length;
+        }
+    }
+
+    private void read(Session session) {
+        try {
+            int read = session.channel.read(session.in);
+            if (read < 0) {
+                disconnect(session);
+                return;
+            }
+            session.in.flip();
+            ByteBuffer frame;
+            while ((frame = GameProtocol.nextFrame(session.in, MAX_CLIENT_FRAME)) != null) {
+                session.received(frame);
+            }
+            session.in.compact();
+        } catch (IOException | RuntimeException e) {
+            disconnect(session); //A broken connection or a client not speaking the protocol
+        }
+    }
+
+    private void flush(Session session) {
+        if (!session.key.isValid()) return;
+        if (session.closeRequested) {
+            disconnect(session);
+            return;
+        }
+        try {
+            boolean done = session.write();
+            session.key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            disconnect(session);
+        }
+    }
+
+    private void disconnect(Session session) {
+        if (session.closed) return;
+        session.closed = true;
+        session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            //Already gone
+        }
+        sessionCount.decrementAndGet();
+    }
+
+    /* The sessions one worker advances each tick. Only that worker touches the list, and new
+       sessions wait in a queue until the shard's next turn. */
+    private final class Shard implements Callable<Void> {
+        private final Queue<Session> joining = new ConcurrentLinkedQueue<>();
+        private final List<Session> sessions = new ArrayList<>();
+        private ByteBuffer scratch = ByteBuffer.allocate(1024); //Frame being built, copied out to its session
+        private volatile int ticks;
+
+        @Override
+        public Void call() {
+            long started = System.nanoTime();
+            Session session;
+            while ((session = joining.poll()) != null) {
+                sessions.add(session);
+            }
+            for (int i = 0; i < sessions.size(); ) {
+                session = sessions.get(i);
+                if (session.closed) {
+                    sessions.set(i, sessions.get(sessions.size() - 1)); //Order does not matter, so swap the last one in
+                    sessions.remove(sessions.size() - 1);
+                    continue;
+                }
+                try {
+                    session.advance(ticks, this);
+                } catch (RuntimeException e) {
+                    session.requestClose(); //One broken game must not stop the others
+                }
+                i++;
+            }
+            busyNanos.add(System.nanoTime() - started);
+            return null;
+        }
+
+        //Starts a frame of the given type with room for a payload of the given size
+        ByteBuffer frame(byte type, int size) {
+            if (scratch.capacity() < 5 + size) {
+                scratch = ByteBuffer.allocate(Integer.highestOneBit(5 + size) << 1);
+            }
+            scratch.clear();
+            return scratch.putInt(1 + size).put(type);
+        }
+    }
+
+    //Fields of a START request, handed from the selector thread to the session's worker
+    private static final class Start {
+        final int width, height, monsters;
+        final long seed;
+
+        Start(int width, int height, int monsters, long seed) {
+            this.width = width;
+            this.height = height;
+            this.monsters = monsters;
+            this.seed = seed;
+        }
+    }
+
+    /* One client and its game. The simulation and everything about what was last sent belong to
+       the worker advancing the session; the selector thread only reads into the input and
+       takes bytes out of the outgoing buffer, which is guarded by the session's lock. */
+    private final class Session implements Maze.CellListener {
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(MAX_CLIENT_FRAME * 4);
+        private final PlayerInput input = new PlayerInput(0, 0); //Clients send every press and release
+        private final AtomicReference<Start> pendingStart = new AtomicReference<>();
+        private final AtomicBoolean queued = new AtomicBoolean(); //Waiting in flushes
+        private SelectionKey key;
+        private volatile boolean closed = false;
+        private volatile boolean closeRequested = false;
+        private volatile boolean playing = false;          //A game is running and its OVER not yet sent
+        private ByteBuffer out = ByteBuffer.allocate(1024); //Bytes not yet sent, in write mode; guarded by this
+
+        //Owned by the worker
+        private GameSimulation simulation;
+        private int runNum = 0;
+        private boolean overSent = false;
+        private int[] changed = new int[16];             //Cells whose symbol changed since the last delta, may repeat
+        private int changedCount = 0;
+        private int sentKeys = -1, sentSeconds = -1;
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        //Selector thread: acts on one frame from the client
+        void received(ByteBuffer frame) {
+            byte type = frame.get();
+            switch (type) {
+                case GameProtocol.START:
+                    pendingStart.set(new Start(frame.getInt(), frame.getInt(), frame.getInt(), frame.getLong()));
+                    break;
+                case GameProtocol.KEY:
+                    int direction = frame.get();
+                    boolean pressed = frame.get() != 0;
+                    if (!acceptsInput()) break;
+                    int dx = GameProtocol.DX[direction], dy = GameProtocol.DY[direction];
+                    if (pressed) {
+                        input.press(dx, dy);
+                    } else {
+                        input.release(dx, dy);
+                    }
+                    break;
+                case GameProtocol.STOP:
+                    if (acceptsInput()) input.stop();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown message type " + type);
+            }
+        }
+
+        //Input outside a game would never be drained, so it is only taken while one runs or is about to
+        private boolean acceptsInput() {
+            return playing || pendingStart.get() != null;
+        }
+
+        //Worker: starts a requested game, runs the due ticks and queues what the client has not seen
+        void advance(int ticks, Shard shard) {
+            Start start = pendingStart.getAndSet(null);
+            if (start != null) {
+                begin(start, shard);
+            }
+            if (simulation == null || overSent) return;
+
+            for (int i = 0; i < ticks && !simulation.isFinished(); i++) {
+                simulation.tick();
+            }
+            int keys = simulation.getMaze().getPlayer().getKeysCollected();
+            int seconds = simulation.getElapsedSeconds();
+            if (changedCount > 0 || keys != sentKeys || seconds != sentSeconds) {
+                sendDelta(shard);
+            }
+            if (simulation.isFinished()) {
+                GameSimulation.Outcome outcome = simulation.getOutcome();
+                queue(shard.frame(GameProtocol.OVER, 1).put((byte) outcome.ordinal()));
+                overSent = true;
+                playing = false;
+                runNum = outcome == GameSimulation.Outcome.ESCAPED ? runNum + 1 : 0; //Escaping speeds up the next game
+                gamesFinished.increment();
+            }
+        }
+
+        private void begin(Start start, Shard shard) {
+            if (start.width > MAX_SIDE || start.height > MAX_SIDE) {
+                throw new IllegalArgumentException("Mazes on this server are at most " + MAX_SIDE + " cells on a side");
+            }
+            //Some seeds lay out a maze with no way to the door; the snapshot carries the seed actually used
+            Maze maze = new MazeGenerator(start.width, start.height, start.monsters, MazeGenerator.DEFAULT_MAX_ATTEMPTS)
+                    .generate(start.seed);
+            simulation = new GameSimulation(maze, runNum);
+            simulation.setInput(input);
+            maze.setCellListener(this);
+            overSent = false;
+            playing = true;
+
+            //Everything the client cannot work out from the seed: items, the player and the monsters
+            changedCount = 0;
+            for (int y = 0; y < maze.getHeight(); y++) {
+                for (int x = 0; x < maze.getWidth(); x++) {
+                    char cell = maze.getCell(x, y);
+                    if (cell != '#' && cell != ' ') cellChanged(x, y);
+                }
+            }
+            ByteBuffer frame = shard.frame(GameProtocol.SNAPSHOT, 4 + 4 + 8 + 4 + 4 + statusSize(changedCount));
+            frame.putInt(maze.getWidth()).putInt(maze.getHeight()).putLong(maze.getSeed())
+                 .putInt(runNum).putInt(maze.getTotalKeys());
+            putStatus(frame);
+            queue(frame);
+        }
+
+        private void sendDelta(Shard shard) {
+            //The same cell may have changed several times; the client only needs its symbol now
+            Arrays.sort(changed, 0, changedCount);
+            int unique = 0;
+            for (int i = 0; i < changedCount; i++) {
+                if (unique == 0 || changed[unique - 1] != changed[i]) changed[unique++] = changed[i];
+            }
+            changedCount = unique;
+            ByteBuffer frame = shard.frame(GameProtocol.DELTA, statusSize(changedCount));
+            putStatus(frame);
+            queue(frame);
+        }
+
+        private int statusSize(int cells) {
+            return 8 + 4 + 4 + 4 + cells * 5;
+        }
+
+        private void putStatus(ByteBuffer frame) {
+            Maze maze = simulation.getMaze();
+            sentKeys = maze.getPlayer().getKeysCollected();
+            sentSeconds = simulation.getElapsedSeconds();
+            frame.putLong(simulation.getTicks()).putInt(sentKeys).putInt(sentSeconds).putInt(changedCount);
+            int width = maze.getWidth();
+            for (int i = 0; i < changedCount; i++) {
+                int cell = changed[i];
+                frame.putInt(cell).put((byte) maze.getCell(cell % width, cell / width));
+            }
+            changedCount = 0;
+        }
+
+        @Override
+        public void cellChanged(int x, int y) {
+            if (changedCount == changed.length) {
+                changed = Arrays.copyOf(changed, changed.length * 2);
+            }
+            changed[changedCount++] = y * simulation.getMaze().getWidth() + x;
+        }
+
+        //Worker: appends a finished frame to the bytes waiting to be sent and has the selector thread send them
+        private void queue(ByteBuffer frame) {
+            frame.flip();
+            synchronized (this) {
+                if (out.position() + frame.remaining() > MAX_PENDING) {
+                    requestClose(); //The client stopped reading
+                    return;
+                }
+                if (out.remaining() < frame.remaining()) {
+                    int capacity = out.capacity();
+                    while (capacity - out.position() < frame.remaining()) capacity *= 2;
+                    ByteBuffer bigger = ByteBuffer.allocate(capacity);
+                    out.flip();
+                    bigger.put(out);
+                    out = bigger;
+                }
+                out.put(frame);
+            }
+            framesSent.increment();
+            if (queued.compareAndSet(false, true)) {
+                flushes.add(this);
+            }
+        }
+
+        //Selector thread: writes what it can; true once nothing is left
+        boolean write() throws IOException {
+            synchronized (this) {
+                out.flip();
+                int written = channel.write(out);
+                out.compact();
+                bytesSent.add(written);
+                return out.position() == 0;
+            }
+        }
+
+        //Any thread: has the selector thread drop this client
+        void requestClose() {
+            closeRequested = true;
+            if (queued.compareAndSet(false, true)) {
+                flushes.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/* Headless core of the game rules.
+   The simulation owns the maze and advances it in fixed steps of simulated time through tick(),
+   so the same rules run identically behind the Swing view or in a batch of games with no display.
+   All randomness comes from the maze's seeded RNG, which makes a game reproducible from its seed. */
+public final class GameSimulation implements PlayerInput.Target {
+    public static final int TICK_MS = 10;             //Simulated milliseconds covered by one tick
+    public static final int RAGE_SECONDS = 60;        //Seconds until the monster becomes enraged
+    private static final int PLAYER_MOVE_MS = 150;    //Delay between player steps while a key is held
+    private static final int TRAP_FREEZE_MS = 1000;   //How long a trap holds the player
+    private static final int BASE_MONSTER_DELAY = 400;
+    private static final int PARALLEL_MONSTERS = 32;  //Monster count from which decisions run in parallel
+
+    public enum Outcome { RUNNING, CAUGHT, ESCAPED }
+
+    //Receives the game events a front-end has to react to. All methods are called from tick().
+    public interface Listener {
+        default void keyCollected(int collected, int total) {}
+        default void doorLocked() {}
+        default void secondElapsed(int seconds) {}
+        default void enraged() {}
+        default void caught() {}
+        default void escaped() {}
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {};
+
+    private final Maze maze;
+    private final Player player;
+    private final List<Monster> monsters;
+    private final int[] decisions;                    //Cell each monster chose to step onto this round
+    private final int runNum;
+    private final int monsterDelay;                   //Monster speed scales with each run
+    private Listener listener = NO_LISTENER;
+    private ReplayRecorder recorder;                  //Records input and keyframes when set
+    private PlayerInput input;                        //Drained at the start of every tick when set
+
+    private long ticks = 0;                           //Ticks run so far
+    private long timeMs = 0;                          //Simulated clock
+    private int elapsedSeconds = 0;
+    private int clockProgress = 0;                    //Milliseconds towards the next whole second
+    private int monsterProgress = 0;                  //Milliseconds towards the next monster step
+    private int movementProgress = PLAYER_MOVE_MS;    //Milliseconds towards the next player step
+    private long stuckUntil = 0;                      //Clock time at which a trap releases the player
+
+    private int currentDx = 0, currentDy = 0;
+    private int desiredDx = 0, desiredDy = 0;
+    private boolean movementActive = false;
+    private Outcome outcome = Outcome.RUNNING;
+    private boolean changed;                          //Set when a tick alters the board
+
+    public GameSimulation(long seed, int runNum) {
+        this(new Maze(seed), runNum);
+    }
+
+    public GameSimulation(Maze maze, int runNum) {
+        this.maze = maze;
+        this.player = maze.getPlayer();
+        this.monsters = maze.getMonsters();
+        this.decisions = new int[monsters.size()];
+        this.runNum = runNum;
+        this.monsterDelay = Math.max(1, (int)(BASE_MONSTER_DELAY * Math.pow(0.75, runNum)));
+        GameMetrics.gameStarted(runNum, monsterDelay);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    //Starts recording this game; the recorder finishes the file once the game ends
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+        recorder.start(this);
+    }
+
+    //Feeds key events from the given input into this game, one batch at the start of each tick
+    public void setInput(PlayerInput input) {
+        this.input = input;
+    }
+
+    //Advances the game by TICK_MS of simulated time. Returns true if anything on the board changed.
+    public boolean tick() {
+        changed = false;
+        if (outcome != Outcome.RUNNING) return false;
+        long started = GameMetrics.start();
+        if (input != null) {
+            input.apply(this); //Before the tick count moves on, so a replay applies it at the same point
+        }
+        ticks++;
+        timeMs += TICK_MS;
+
+        clockProgress += TICK_MS;
+        while (clockProgress >= 1000 && outcome == Outcome.RUNNING) {
+            clockProgress -= 1000;
+            advanceClock();
+        }
+
+        monsterProgress += TICK_MS;
+        while (monsterProgress >= monsterDelay && outcome == Outcome.RUNNING) {
+            monsterProgress -= monsterDelay;
+            stepMonsters();
+        }
+
+        movementProgress += TICK_MS;
+        while (movementProgress >= PLAYER_MOVE_MS && outcome == Outcome.RUNNING) {
+            if (!movementActive || isStuck()) {
+                movementProgress = PLAYER_MOVE_MS; //Stay ready, so the next press moves on the next tick
+                break;
+            }
+            movementProgress -= PLAYER_MOVE_MS;
+            stepPlayer();
+        }
+
+        if (recorder != null) {
+            recorder.ticked(this);
+        }
+        GameMetrics.tick(started);
+        return changed;
+    }
+
+    //Sets the direction the player wants to go and starts moving
+    @Override
+    public void setDesiredDirection(int dx, int dy) {
+        if (movementActive && desiredDx == dx && desiredDy == dy) return; //Ignore key repeat
+        desiredDx = dx;
+        desiredDy = dy;
+        movementActive = true;
+        if (recorder != null) {
+            recorder.direction(ticks, dx, dy);
+        }
+    }
+
+    //Stops the player after the current step
+    @Override
+    public void stopMovement() {
+        if (!movementActive) return;
+        movementActive = false;
+        if (recorder != null) {
+            recorder.stop(ticks);
+        }
+    }
+
+    private void advanceClock() {
+        elapsedSeconds++;
+        listener.secondElapsed(elapsedSeconds);
+        if (elapsedSeconds == RAGE_SECONDS) {
+            for (Monster monster : monsters) {
+                monster.enrage();
+            }
+            listener.enraged();
+        }
+    }
+
+    /* Moves every monster one step. All monsters first decide against the same board, in parallel
+       once there are enough of them, and then the moves are applied in monster order, so the result
+       never depends on thread scheduling. A monster whose chosen cell is already taken waits. */
+    private void stepMonsters() {
+        long started = GameMetrics.start();
+        int count = monsters.size();
+        if (count >= PARALLEL_MONSTERS) {
+            long refreshStarted = GameMetrics.start();
+            if (maze.refreshPlayerField()) { //Decisions must only read the shared field
+                GameMetrics.pathfind(refreshStarted);
+            }
+            IntStream.range(0, count).parallel().forEach(i -> decisions[i] = monsters.get(i).decideMove(player, maze));
+        } else {
+            for (int i = 0; i < count; i++) {
+                decisions[i] = monsters.get(i).decideMove(player, maze);
+            }
+        }
+
+        int width = maze.getWidth();
+        for (int i = 0; i < count; i++) {
+            int target = decisions[i];
+            if (target >= 0 && maze.monsterAt(target % width, target / width) < 0) {
+                monsters.get(i).commitMove(target, maze);
+            }
+        }
+        changed = true;
+        GameMetrics.monsterStep(started);
+
+        if (maze.monsterAt(player.getX(), player.getY()) >= 0) {
+            outcome = Outcome.CAUGHT;
+            listener.caught();
+        }
+    }
+
+    private void stepPlayer() {
+        int tryX = player.getX() + desiredDx;
+        int tryY = player.getY() + desiredDy;
+
+        //Try turning if possible
+        if (maze.isWalkable(tryX, tryY)) {
+            currentDx = desiredDx;
+            currentDy = desiredDy;
+        }
+
+        //Try moving in current direction
+        movePlayer(currentDx, currentDy);
+    }
+
+    //Triggers certain events upon the player moving onto a special tile type
+    private void movePlayer(int dx, int dy) {
+        int newX = player.getX() + dx;
+        int newY = player.getY() + dy;
+
+        if (!maze.isWalkable(newX, newY)) return;
+
+        char targetCell = maze.getCell(newX, newY);
+
+        //Collect key
+        if (targetCell == 'K') {
+            player.collectKey();
+            maze.setCell(newX, newY, ' ');
+            listener.keyCollected(player.getKeysCollected(), maze.getTotalKeys());
+        }
+
+        //Trigger trap (freezes player for one second); it springs once and is gone
+        if (targetCell == 'T') {
+            stuckUntil = timeMs + TRAP_FREEZE_MS;
+            maze.setCell(newX, newY, ' ');
+        }
+
+        //Door logic
+        if (targetCell == 'D') {
+            if (player.getKeysCollected() >= maze.getTotalKeys()) {
+                outcome = Outcome.ESCAPED;
+                listener.escaped();
+            } else {
+                listener.doorLocked();
+            }
+            return;
+        }
+
+        //Move player and update game state
+        maze.updatePosition(player.getX(), player.getY(), newX, newY, 'P');
+        changed = true;
+
+        //Check for monster encounter after move
+        if (maze.monsterAt(newX, newY) >= 0) {
+            outcome = Outcome.CAUGHT;
+            listener.caught();
+        }
+    }
+
+    //Bytes writeState will produce for the current game
+    public int stateSize() {
+        return 8 + 8 + 4 * 4 + 8 + 4 * 4 + 1 + 1 + 3 * 4 + 4 + monsters.size() * Monster.STATE_SIZE + maze.entityStateSize();
+    }
+
+    /* Saves everything that changes while the game runs: clocks, input, player, monsters and
+       entity cells. Together with the maze seed this is enough to resume the game exactly. */
+    public void writeState(ByteBuffer buffer) {
+        buffer.putLong(ticks).putLong(timeMs)
+              .putInt(elapsedSeconds).putInt(clockProgress).putInt(monsterProgress).putInt(movementProgress)
+              .putLong(stuckUntil)
+              .putInt(currentDx).putInt(currentDy).putInt(desiredDx).putInt(desiredDy)
+              .put((byte) (movementActive ? 1 : 0))
+              .put((byte) outcome.ordinal())
+              .putInt(player.getX()).putInt(player.getY()).putInt(player.getKeysCollected());
+        buffer.putInt(monsters.size());
+        for (Monster monster : monsters) {
+            monster.writeState(buffer);
+        }
+        maze.writeEntities(buffer);
+    }
+
+    //Restores a state saved by writeState from a game with the same seed and settings
+    public void readState(ByteBuffer buffer) {
+        ticks = buffer.getLong();
+        timeMs = buffer.getLong();
+        elapsedSeconds = buffer.getInt();
+        clockProgress = buffer.getInt();
+        monsterProgress = buffer.getInt();
+        movementProgress = buffer.getInt();
+        stuckUntil = buffer.getLong();
+        currentDx = buffer.getInt();
+        currentDy = buffer.getInt();
+        desiredDx = buffer.getInt();
+        desiredDy = buffer.getInt();
+        movementActive = buffer.get() != 0;
+        outcome = Outcome.values()[buffer.get()];
+        maze.restorePlayer(buffer.getInt(), buffer.getInt(), buffer.getInt());
+
+        int count = buffer.getInt();
+        if (count != monsters.size()) {
+            throw new IllegalArgumentException("Saved state has " + count + " monsters, this game has " + monsters.size());
+        }
+        for (Monster monster : monsters) {
+            monster.readState(buffer, maze);
+        }
+        maze.readEntities(buffer);
+    }
+
+    //Hash of the saved state, for checking that two runs of the same game agree
+    public long stateHash() {
+        ByteBuffer buffer = ByteBuffer.allocate(stateSize());
+        writeState(buffer);
+        long hash = 1125899906842597L;
+        for (int i = 0; i < buffer.position(); i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        return hash;
+    }
+
+    //True while the player still heads one way but wants to turn another, and the turn was not possible yet
+    @Override
+    public boolean isTurnPending() {
+        return movementActive && (currentDx != desiredDx || currentDy != desiredDy);
+    }
+
+    @Override
+    public boolean isDesiredDirection(int dx, int dy) {
+        return desiredDx == dx && desiredDy == dy;
+    }
+
+    public boolean isStuck() {
+        return timeMs < stuckUntil;
+    }
+
+    public boolean isFinished() {
+        return outcome != Outcome.RUNNING;
+    }
+
+    public Outcome getOutcome() { return outcome; }
+    public Maze getMaze() { return maze; }
+    public int getRunNum() { return runNum; }
+    public int getMonsterDelay() { return monsterDelay; }
+    public long getTicks() { return ticks; }
+    @Override
+    public long getTimeMillis() { return timeMs; }
+    public int getElapsedSeconds() { return elapsedSeconds; }
+}
@@ -0,0 +1,320 @@
+package Game;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Hierarchical search (HPA*) over the 6x6 chunk grid terrains are laid out on.
+   Within a chunk, the distance between any two cells only depends on which of its 36 cells are
+   blocked, so those distances are worked out once per blocked-cell mask and shared by every
+   maze and thread. Nearly every chunk is one of the templates, so there are few masks; should
+   they pass MAX_TABLES anyway the shared map is emptied, and searchers keep the tables they
+   hold. The search itself is A* over the entrances, the border cells with an open cell across
+   the border: it jumps between entrances of a chunk in one move and crosses a border in
+   another. Every border crossing is an entrance, so the path it finds is as short as a
+   cell-level search's. Only the first move is turned back into cells for firstStep. Like BFS
+   and jump point search it only looks at passability, not at step costs. */
+public final class HierarchicalPathfinder implements Pathfinder {
+    private static final int SIZE = Terrain.CHUNK_SIZE;
+    private static final int CELLS = SIZE * SIZE;
+    private static final ConcurrentHashMap<Long, ChunkTable> TABLES = new ConcurrentHashMap<>();
+    private static final int MAX_TABLES = 4096; //About 10 MB of tables; past it the map starts over
+    private static final int LEFT = 1 << 6, RIGHT = 1 << 7, UP = 1 << 8, DOWN = 1 << 9; //Borders an entrance crosses
+    private static final int LOCAL = (1 << 6) - 1;
+
+    private final PathPolicy policy;
+    private final SearchHeap open = new SearchHeap();
+    private int[] cost = new int[0];       //Cheapest known cost from the start to each node
+    private int[] parent = new int[0];     //Node each node was best reached from
+    private int[] seen = new int[0];       //Generation in which a node was first reached
+    private int[] closed = new int[0];     //Generation in which a node's cost became final
+    private int generation = 0;
+    private int expanded = 0;
+
+    private Maze maze;                     //Maze the chunk state below belongs to
+    private int version;                   //Maze version the chunk state was read at
+    private int width, height, chunksX;
+    private ChunkTable[] tables = new ChunkTable[0]; //Table of each chunk, null until first needed
+    private short[][] entrances = new short[0][];    //Local index and crossed borders of each chunk's entrance
+
+    public HierarchicalPathfinder() {
+        this(PathPolicy.MONSTER);
+    }
+
+    public HierarchicalPathfinder(PathPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        int target = targetY * maze.getWidth() + targetX;
+        if (!search(start, target, maze)) return -1;
+
+        int node = target;
+        while (parent[node] != start) {
+            node = parent[node];
+        }
+        return stepToward(start, node);
+    }
+
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        int target = targetY * maze.getWidth() + targetX;
+        if (!search(start, target, maze)) return NO_PATH;
+
+        int[] path = new int[cost[target]];
+        int length = path.length;
+        for (int node = target; node != start; node = parent[node]) {
+            //Fill in the cells of each move backwards, from its end to just after its start
+            int from = parent[node];
+            int moveLength = cost[node] - cost[from];
+            int cell = from;
+            for (int i = moveLength; i > 0; i--) {
+                cell = stepToward(cell, node);
+                path[length - i] = cell;
+            }
+            length -= moveLength;
+        }
+        return path;
+    }
+
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    //Runs the search and returns true once the target's cost is final
+    private boolean search(int start, int target, Maze maze) {
+        expanded = 0;
+        if (start == target) return false;
+        refresh(maze);
+        prepare(width * height);
+        open.clear();
+
+        int targetX = target % width, targetY = target / width;
+        int targetChunk = chunkOf(target);
+        int targetLocal = localOf(target);
+        cost[start] = 0;
+        parent[start] = -1;
+        seen[start] = generation;
+        open.push(start, key(0, start, targetX, targetY));
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (closed[current] == generation) continue; //Stale copy of a node reached more cheaply
+            closed[current] = generation;
+            expanded++;
+
+            if (current == target) {
+                GameMetrics.bfs(expanded);
+                return true;
+            }
+
+            int chunk = chunkOf(current);
+            int local = localOf(current);
+            ChunkTable table = table(chunk);
+            int currentCost = cost[current];
+
+            //Straight to the target when it lies in the same chunk
+            if (chunk == targetChunk) {
+                int distance = table.distance(local, targetLocal);
+                if (distance > 0) relax(current, target, currentCost + distance, targetX, targetY);
+            }
+
+            //Across the chunk to each of its other entrances
+            int chunkX = chunk % chunksX, chunkY = chunk / chunksX;
+            int originX = chunkX * SIZE, originY = chunkY * SIZE;
+            int borders = 0;
+            for (short entrance : entrances(chunk)) {
+                int entranceLocal = entrance & LOCAL;
+                if (entranceLocal == local) {
+                    borders = entrance;
+                    continue;
+                }
+                int distance = table.distance(local, entranceLocal);
+                if (distance <= 0) continue;
+                int node = (originY + entranceLocal / SIZE) * width + originX + entranceLocal % SIZE;
+                relax(current, node, currentCost + distance, targetX, targetY);
+            }
+
+            //Over the border into a neighbouring chunk, if this node is an entrance
+            if ((borders & LEFT) != 0) relax(current, current - 1, currentCost + 1, targetX, targetY);
+            if ((borders & RIGHT) != 0) relax(current, current + 1, currentCost + 1, targetX, targetY);
+            if ((borders & UP) != 0) relax(current, current - width, currentCost + 1, targetX, targetY);
+            if ((borders & DOWN) != 0) relax(current, current + width, currentCost + 1, targetX, targetY);
+        }
+        GameMetrics.bfs(expanded);
+        return false;
+    }
+
+    private void relax(int from, int node, int nodeCost, int targetX, int targetY) {
+        if (closed[node] == generation) return;
+        if (seen[node] == generation && nodeCost >= cost[node]) return;
+        seen[node] = generation;
+        cost[node] = nodeCost;
+        parent[node] = from;
+        open.push(node, key(nodeCost, node, targetX, targetY));
+    }
+
+    //Returns the cell after the given one on a shortest way to a node it has a move to
+    private int stepToward(int cell, int node) {
+        int chunk = chunkOf(cell);
+        if (chunk != chunkOf(node)) return node; //A border crossing is a single step
+        int next = table(chunk).next(localOf(cell), localOf(node));
+        int chunkX = chunk % chunksX, chunkY = chunk / chunksX;
+        return (chunkY * SIZE + next / SIZE) * width + chunkX * SIZE + next % SIZE;
+    }
+
+    //Forgets the chunk state when the maze changes or cells start or stop blocking
+    private void refresh(Maze maze) {
+        if (maze == this.maze && maze.getVersion() == version) return;
+        this.maze = maze;
+        this.version = maze.getVersion();
+        width = maze.getWidth();
+        height = maze.getHeight();
+        chunksX = (width + SIZE - 1) / SIZE;
+        int chunks = chunksX * ((height + SIZE - 1) / SIZE);
+        if (tables.length < chunks) {
+            tables = new ChunkTable[chunks];
+            entrances = new short[chunks][];
+        } else {
+            Arrays.fill(tables, null);
+            Arrays.fill(entrances, null);
+        }
+    }
+
+    private int chunkOf(int cell) {
+        return (cell / width / SIZE) * chunksX + (cell % width) / SIZE;
+    }
+
+    private int localOf(int cell) {
+        return (cell / width % SIZE) * SIZE + cell % width % SIZE;
+    }
+
+    private boolean isOpen(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return false;
+        return table(chunkOf(y * width + x)).isOpen(localOf(y * width + x));
+    }
+
+    //Reads the chunk's blocked cells and picks up the shared table for them
+    private ChunkTable table(int chunk) {
+        ChunkTable table = tables[chunk];
+        if (table == null) {
+            int originX = chunk % chunksX * SIZE, originY = chunk / chunksX * SIZE;
+            long mask = 0;
+            for (int i = 0; i < CELLS; i++) {
+                int x = originX + i % SIZE, y = originY + i / SIZE;
+                if (x >= width || y >= height || !policy.isPassable(maze.getGround(x, y))) mask |= 1L << i;
+            }
+            table = TABLES.get(mask);
+            if (table == null) {
+                //Keys, doors and clipped edges add masks beyond the templates, so bound what is kept
+                if (TABLES.size() >= MAX_TABLES) TABLES.clear();
+                table = TABLES.computeIfAbsent(mask, ChunkTable::new);
+            }
+            tables[chunk] = table;
+        }
+        return table;
+    }
+
+    //Border cells of the chunk that have an open cell right across the border, tagged with the borders they cross
+    private short[] entrances(int chunk) {
+        short[] list = entrances[chunk];
+        if (list == null) {
+            ChunkTable table = table(chunk);
+            int originX = chunk % chunksX * SIZE, originY = chunk / chunksX * SIZE;
+            short[] found = new short[4 * SIZE];
+            int count = 0;
+            for (int i = 0; i < CELLS; i++) {
+                if (!table.isOpen(i)) continue;
+                int localX = i % SIZE, localY = i / SIZE;
+                int x = originX + localX, y = originY + localY;
+                int borders = 0;
+                if (localX == 0 && isOpen(x - 1, y)) borders |= LEFT;
+                if (localX == SIZE - 1 && isOpen(x + 1, y)) borders |= RIGHT;
+                if (localY == 0 && isOpen(x, y - 1)) borders |= UP;
+                if (localY == SIZE - 1 && isOpen(x, y + 1)) borders |= DOWN;
+                if (borders != 0) found[count++] = (short) (i | borders);
+            }
+            list = Arrays.copyOf(found, count);
+            entrances[chunk] = list;
+        }
+        return list;
+    }
+
+    //Orders nodes by estimated total cost, then by remaining distance
+    private long key(int cost, int node, int targetX, int targetY) {
+        int remaining = Math.abs(targetX - node % width) + Math.abs(targetY - node / width);
+        return ((long) (cost + remaining) << 32) | remaining;
+    }
+
+    //Grows the buffers if the maze got bigger and starts a new generation
+    private void prepare(int cells) {
+        if (seen.length < cells) {
+            cost = new int[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    /* Shortest distances and first steps between every pair of cells in a chunk with the given
+       blocked cells, moving only inside the chunk. Immutable once built, so it can be shared. */
+    static final class ChunkTable {
+        private static final int[] DX = {0, 1, 0, -1};
+        private static final int[] DY = {1, 0, -1, 0};
+
+        private final long blocked;     //Bit i set when local cell i cannot be entered
+        private final byte[] distance;  //[from * 36 + to], -1 if the cells do not connect inside the chunk
+        private final byte[] next;      //[from * 36 + to], the cell after from on a shortest way to to
+
+        ChunkTable(long blocked) {
+            this.blocked = blocked;
+            this.distance = new byte[CELLS * CELLS];
+            this.next = new byte[CELLS * CELLS];
+            Arrays.fill(distance, (byte) -1);
+
+            //Search outwards from every open cell; a cell's step toward the root is the one it was reached from
+            int[] queue = new int[CELLS];
+            for (int root = 0; root < CELLS; root++) {
+                if (!isOpen(root)) continue;
+                int head = 0, tail = 0;
+                distance[root * CELLS + root] = 0;
+                next[root * CELLS + root] = (byte) root;
+                queue[tail++] = root;
+                while (head < tail) {
+                    int current = queue[head++];
+                    int x = current % SIZE, y = current / SIZE;
+                    for (int d = 0; d < 4; d++) {
+                        int nx = x + DX[d], ny = y + DY[d];
+                        if (nx < 0 || nx >= SIZE || ny < 0 || ny >= SIZE) continue;
+                        int neighbour = ny * SIZE + nx;
+                        if (!isOpen(neighbour) || distance[neighbour * CELLS + root] >= 0) continue;
+                        distance[neighbour * CELLS + root] = (byte) (distance[current * CELLS + root] + 1);
+                        next[neighbour * CELLS + root] = (byte) current;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        }
+
+        boolean isOpen(int local) {
+            return (blocked & (1L << local)) == 0;
+        }
+
+        int distance(int from, int to) {
+            return distance[from * CELLS + to];
+        }
+
+        int next(int from, int to) {
+            return next[from * CELLS + to];
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Sparse store of the items lying on a maze's floor: keys, traps and the door.
+   Cells are kept in an open-addressing table keyed by their row-major index, so a maze
+   holds its few dozen items in a small array however large the terrain under them is.
+   Removal shifts later entries back instead of leaving markers, keeping lookups short. */
+final class ItemLayer {
+    private static final int FREE = -1;
+    private static final char NONE = ' ';
+
+    private int[] cells;  //Cell index in each slot, FREE if the slot is empty
+    private byte[] items; //Item symbol in each slot
+    private int shift;    //32 minus the number of bits in a slot index
+    private int size;
+
+    ItemLayer() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        cells = new int[capacity];
+        items = new byte[capacity];
+        Arrays.fill(cells, FREE);
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+    }
+
+    //Fibonacci hashing spreads neighbouring cells over the table
+    private int slot(int cell) {
+        return (cell * 0x9E3779B9) >>> shift;
+    }
+
+    //Returns the item on the cell, or ' ' if there is none
+    char get(int cell) {
+        int mask = cells.length - 1;
+        for (int i = slot(cell); ; i = (i + 1) & mask) {
+            int stored = cells[i];
+            if (stored == cell) return (char) items[i];
+            if (stored == FREE) return NONE;
+        }
+    }
+
+    //Puts an item on the cell, replacing whatever item was there
+    void put(int cell, char item) {
+        if ((size + 1) * 2 > cells.length) {
+            grow();
+        }
+        int mask = cells.length - 1;
+        int i = slot(cell);
+        while (cells[i] != FREE && cells[i] != cell) {
+            i = (i + 1) & mask;
+        }
+        if (cells[i] == FREE) {
+            cells[i] = cell;
+            size++;
+        }
+        items[i] = (byte) item;
+    }
+
+    //Takes the item off the cell and returns it, or ' ' if there was none
+    char remove(int cell) {
+        int mask = cells.length - 1;
+        int i = slot(cell);
+        while (cells[i] != cell) {
+            if (cells[i] == FREE) return NONE;
+            i = (i + 1) & mask;
+        }
+        char removed = (char) items[i];
+
+        //Move back every later entry of the run that the hole would cut off from its home slot
+        int hole = i;
+        for (int j = (i + 1) & mask; cells[j] != FREE; j = (j + 1) & mask) {
+            int home = slot(cells[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                cells[hole] = cells[j];
+                items[hole] = items[j];
+                hole = j;
+            }
+        }
+        cells[hole] = FREE;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(cells, FREE);
+        size = 0;
+    }
+
+    //Returns the cells holding an item in ascending order, so saved states do not depend on the table layout
+    int[] sortedCells() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int cell : cells) {
+            if (cell != FREE) result[n++] = cell;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void grow() {
+        int[] oldCells = cells;
+        byte[] oldItems = items;
+        allocate(oldCells.length * 2);
+        for (int i = 0; i < oldCells.length; i++) {
+            if (oldCells[i] != FREE) put(oldCells[i], (char) oldItems[i]);
+        }
+    }
+}
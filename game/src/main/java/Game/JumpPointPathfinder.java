@@ -0,0 +1,190 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Jump point search for a grid where moves are only horizontal or vertical.
+   Instead of queueing every neighbour, the search runs straight along rows and columns and
+   only stops at jump points: the target, and cells where a wall ends beside the run so a new
+   shortest path could branch off. Runs down a column also stop where a run along the row would
+   reach a jump point. In long corridors and open rooms this puts far fewer cells on the open
+   list than BFS or A*. Every passable cell counts as one step; policy costs are ignored. */
+public final class JumpPointPathfinder implements Pathfinder {
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
+    private final PathPolicy policy;
+    private final SearchHeap open = new SearchHeap();
+    private int[] cost = new int[0];    //Shortest known distance from the start to each jump point
+    private int[] parent = new int[0];  //Jump point each jump point was best reached from
+    private int[] seen = new int[0];    //Generation in which a cell was first reached
+    private int[] closed = new int[0];  //Generation in which a cell's distance became final
+    private int generation = 0;
+    private int expanded = 0;
+
+    //Set by each search; the maze is only held while the search runs
+    private Maze maze;
+    private int width, height;
+    private int target;
+
+    public JumpPointPathfinder() {
+        this(PathPolicy.MONSTER);
+    }
+
+    public JumpPointPathfinder(PathPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        if (!search(startX, startY, targetX, targetY, maze)) return -1;
+        return stepFrom(start, target);
+    }
+
+    //Fills in the straight runs between the jump points of the path
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int start = startY * maze.getWidth() + startX;
+        if (!search(startX, startY, targetX, targetY, maze)) return NO_PATH;
+
+        int[] path = new int[cost[target]];
+        int length = path.length;
+        for (int jumpPoint = target; jumpPoint != start; jumpPoint = parent[jumpPoint]) {
+            int from = parent[jumpPoint];
+            int stride = Integer.signum(from % width - jumpPoint % width)
+                    + Integer.signum(from / width - jumpPoint / width) * width;
+            for (int cell = jumpPoint; cell != from; cell += stride) {
+                path[--length] = cell;
+            }
+        }
+        return path;
+    }
+
+    //Runs the search and returns true once the target's distance is final
+    private boolean search(int startX, int startY, int targetX, int targetY, Maze maze) {
+        this.maze = maze;
+        width = maze.getWidth();
+        height = maze.getHeight();
+        int start = startY * width + startX;
+        target = targetY * width + targetX;
+        expanded = 0;
+        if (start == target) return false;
+
+        prepare(width * height);
+        open.clear();
+        cost[start] = 0;
+        parent[start] = -1;
+        seen[start] = generation;
+        open.push(start, key(0, startX, startY, targetX, targetY));
+
+        try {
+            while (!open.isEmpty()) {
+                int current = open.pop();
+                if (closed[current] == generation) continue;
+                closed[current] = generation;
+                expanded++;
+
+                if (current == target) {
+                    GameMetrics.bfs(expanded);
+                    return true;
+                }
+
+                int cx = current % width;
+                int cy = current / width;
+                int from = parent[current];
+                int dx = from < 0 ? 0 : Integer.signum(cx - from % width);
+                int dy = from < 0 ? 0 : Integer.signum(cy - from / width);
+                for (int d = 0; d < 4; d++) {
+                    //Never turn back the way the search came
+                    if (from >= 0 && DX[d] == -dx && DY[d] == -dy) continue;
+
+                    int jumpPoint = jump(cx, cy, DX[d], DY[d]);
+                    if (jumpPoint < 0 || closed[jumpPoint] == generation) continue;
+
+                    int jx = jumpPoint % width;
+                    int jy = jumpPoint / width;
+                    int nextCost = cost[current] + Math.abs(jx - cx) + Math.abs(jy - cy);
+                    if (seen[jumpPoint] == generation && nextCost >= cost[jumpPoint]) continue;
+                    seen[jumpPoint] = generation;
+                    cost[jumpPoint] = nextCost;
+                    parent[jumpPoint] = current;
+                    open.push(jumpPoint, key(nextCost, jx, jy, targetX, targetY));
+                }
+            }
+            GameMetrics.bfs(expanded);
+            return false;
+        } finally {
+            this.maze = null;
+        }
+    }
+
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    //Returns the cell next to the start on the straight run toward the first jump point of the path
+    private int stepFrom(int start, int end) {
+        int jumpPoint = end;
+        while (parent[jumpPoint] != start) {
+            jumpPoint = parent[jumpPoint];
+        }
+        int dx = Integer.signum(jumpPoint % width - start % width);
+        int dy = Integer.signum(jumpPoint / width - start / width);
+        return start + dy * width + dx;
+    }
+
+    //Runs from (x, y) in one direction and returns the first jump point, or -1 if the run hits a wall
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            x += dx;
+            y += dy;
+            if (!passable(x, y)) return -1;
+            int cell = y * width + x;
+            if (cell == target) return cell;
+
+            if (dx != 0) {
+                //A wall beside the run ends here, so a path may turn the corner
+                if ((passable(x, y - 1) && !passable(x - dx, y - 1))
+                        || (passable(x, y + 1) && !passable(x - dx, y + 1))) {
+                    return cell;
+                }
+            } else {
+                if ((passable(x - 1, y) && !passable(x - 1, y - dy))
+                        || (passable(x + 1, y) && !passable(x + 1, y - dy))) {
+                    return cell;
+                }
+                //A path may leave the column here along the row
+                if (jump(x, y, 1, 0) >= 0 || jump(x, y, -1, 0) >= 0) {
+                    return cell;
+                }
+            }
+        }
+    }
+
+    private boolean passable(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && policy.isPassable(maze.getGround(x, y));
+    }
+
+    //Orders jump points by estimated total distance, then by remaining distance
+    private static long key(int cost, int x, int y, int targetX, int targetY) {
+        int remaining = Math.abs(targetX - x) + Math.abs(targetY - y);
+        return ((long) (cost + remaining) << 32) | remaining;
+    }
+
+    //Grows the buffers if the maze got bigger and starts a new generation
+    private void prepare(int cells) {
+        if (seen.length < cells) {
+            cost = new int[cells];
+            parent = new int[cells];
+            seen = new int[cells];
+            closed = new int[cells];
+            generation = 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package Game;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/* Puts a GameServer under load from many GameClients on one thread and one Selector.
+   Every client plays the classic maze with a random walker: it holds a random direction for a
+   fraction of a second, lets go, picks another, and starts a fresh game whenever one ends.
+   Without an address it starts a server in the same JVM on a loopback port, and also prints that
+   server's report: tick latency and how many sessions a core carries at the measured load.
+   Usage: LoadGenerator [sessions [seconds [workers | host:port]]] */
+public final class LoadGenerator {
+    private static final int REPORT_SECONDS = 5;
+    private static final int MIN_HOLD_MS = 150, MAX_HOLD_MS = 900; //How long a walker holds a direction
+
+    private final List<Walker> walkers = new ArrayList<>();
+    private final Selector selector;
+    private final Random random;
+    private long gamesStarted = 0;
+
+    private LoadGenerator(long seed) throws IOException {
+        this.selector = Selector.open();
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int sessions = args.length >= 1 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length >= 2 ? Integer.parseInt(args[1]) : 30;
+        String target = args.length >= 3 ? args[2] : null;
+
+        GameServer server = null;
+        InetSocketAddress address;
+        if (target != null && target.contains(":")) {
+            int colon = target.lastIndexOf(':');
+            address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        } else {
+            int workers = target != null ? Integer.parseInt(target) : Runtime.getRuntime().availableProcessors();
+            server = new GameServer(0, workers);
+            server.start();
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+            System.out.println("Started a server with " + workers + " workers on port " + server.getPort());
+        }
+
+        LoadGenerator generator = new LoadGenerator(1);
+        try {
+            generator.run(address, sessions, TimeUnit.SECONDS.toNanos(seconds), server);
+        } finally {
+            generator.close();
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private void run(InetSocketAddress address, int sessions, long durationNanos, GameServer server) throws IOException {
+        for (int i = 0; i < sessions; i++) {
+            Walker walker = new Walker(GameClient.connect(address));
+            walker.key = walker.client.getChannel().register(selector, SelectionKey.OP_READ, walker);
+            walkers.add(walker);
+            startGame(walker);
+        }
+        System.out.println("Connected " + sessions + " clients");
+        if (server != null) {
+            server.report(); //Start measuring once every client is in
+        }
+
+        long started = System.nanoTime();
+        long nextReport = started + TimeUnit.SECONDS.toNanos(REPORT_SECONDS);
+        long lastFrames = 0, lastBytes = 0, lastGames = 0;
+        while (System.nanoTime() - started < durationNanos) {
+            selector.select(GameSimulation.TICK_MS);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Walker walker = (Walker) key.attachment();
+                if (key.isValid() && key.isReadable() && !walker.client.read()) {
+                    throw new IOException("Server closed a connection");
+                }
+                if (key.isValid() && key.isWritable()) flush(walker);
+            }
+
+            long now = System.nanoTime();
+            for (Walker walker : walkers) {
+                GameSimulation.Outcome outcome = walker.client.getOutcome();
+                if (outcome != null && outcome != GameSimulation.Outcome.RUNNING && !walker.restarting) {
+                    startGame(walker);
+                } else if (outcome == GameSimulation.Outcome.RUNNING && now >= walker.nextTurn) {
+                    walker.restarting = false;
+                    turn(walker, now);
+                }
+            }
+
+            if (now >= nextReport) {
+                long frames = 0, bytes = 0;
+                for (Walker walker : walkers) {
+                    frames += walker.client.getFramesReceived();
+                    bytes += walker.client.getBytesReceived();
+                }
+                System.out.printf("clients: %d connected | %.0f frames/s, %.1f KB/s in | %d games started%n",
+                        walkers.size(), (frames - lastFrames) / (double) REPORT_SECONDS,
+                        (bytes - lastBytes) / 1024.0 / REPORT_SECONDS, gamesStarted - lastGames);
+                if (server != null) {
+                    System.out.println("server:  " + server.report());
+                }
+                lastFrames = frames;
+                lastBytes = bytes;
+                lastGames = gamesStarted;
+                nextReport += TimeUnit.SECONDS.toNanos(REPORT_SECONDS);
+            }
+        }
+    }
+
+    private void startGame(Walker walker) throws IOException {
+        walker.client.start(Maze.DEFAULT_SIZE, Maze.DEFAULT_SIZE, 1, random.nextLong());
+        walker.direction = -1;
+        walker.restarting = true; //Until the new snapshot replaces the finished game
+        gamesStarted++;
+        flush(walker);
+    }
+
+    //Lets go of the held direction and holds a new one
+    private void turn(Walker walker, long now) throws IOException {
+        if (walker.direction >= 0) {
+            walker.client.release(GameProtocol.DX[walker.direction], GameProtocol.DY[walker.direction]);
+        }
+        walker.direction = random.nextInt(4);
+        walker.client.press(GameProtocol.DX[walker.direction], GameProtocol.DY[walker.direction]);
+        walker.nextTurn = now + TimeUnit.MILLISECONDS.toNanos(MIN_HOLD_MS + random.nextInt(MAX_HOLD_MS - MIN_HOLD_MS));
+        flush(walker);
+    }
+
+    private void flush(Walker walker) throws IOException {
+        boolean done = walker.client.flush();
+        walker.key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private void close() throws IOException {
+        for (Walker walker : walkers) {
+            walker.client.close();
+        }
+        selector.close();
+    }
+
+    //A client and what its random walk is doing
+    private static final class Walker {
+        final GameClient client;
+        SelectionKey key;
+        int direction = -1;      //Direction held, -1 for none
+        long nextTurn = 0;       //When to pick another direction
+        boolean restarting;      //A new game was asked for and has not arrived yet
+
+        Walker(GameClient client) {
+            this.client = client;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/* A maze in play, stored as two layers. The terrain holds the walls, never changes and may be
+   shared with other mazes. On top of it sit the entities: the player and the monsters, kept as
+   positions, and a sparse layer of keys, traps and the door. getCell combines both into the
+   single symbol the front-ends draw, so items are never lost under whoever walks over them. */
+public final class Maze {
+    //Notified whenever a cell's symbol changes after the maze has been built
+    public interface CellListener {
+        void cellChanged(int x, int y);
+    }
+
+    public static final int DEFAULT_SIZE = 25; //Width and height of the classic maze
+    public static final int MIN_SIZE = 19;     //Smallest maze with enough dead ends for every key and the door
+    public static final int MAX_SIZE = 16384;  //Largest supported width or height
+    private static final int MONSTER_SPAWN_DISTANCE = 10; //Closest extra monsters may start to the player
+    private static final boolean PRINT_ON_BUILD = Boolean.getBoolean("maze.print"); //-Dmaze.print=true dumps each new maze
+
+    private static final char WALL = '#';
+    private static final char EMPTY = ' ';
+    private static final char PLAYER = 'P';
+    private static final char MONSTER = 'M';
+    private static final char KEY = 'K';
+    private static final char TRAP = 'T';
+    private static final char DOOR = 'D';
+
+    private final Terrain terrain;                          //Walls, read-only and shareable
+    private final int width;                                //Width of the maze
+    private final int height;                               //Height of the maze
+    private final int[] neighbourOffsets;                   //Index steps to the right, left, lower and upper cell
+    private final long seed;                                //Seed the layout and all game randomness derive from
+    private final Random random;                            //RNG
+    private Player player;
+    private final List<Monster> monsters = new ArrayList<>();
+    private final MonsterGrid monsterGrid;                  //Spatial index of monster positions
+    private final ItemLayer items = new ItemLayer();        //Keys, traps and the door by cell index
+    private int totalKeys = 0;                              //Total number of keys in the maze
+    private CellListener cellListener;                      //Told about every cell whose symbol changes
+    private final DistanceField playerField = new DistanceField(); //Distances from every cell to the player
+    private boolean playerFieldStale = true;                //Set when the player or the walkable layout changes
+    private int version = 0;                                //Bumped whenever a cell starts or stops blocking monsters
+
+    //Constructor: builds a maze from a random seed
+    public Maze() {
+        this(new Random().nextLong());
+    }
+
+    //Constructor: builds the classic 25x25 maze, reproducibly for a given seed
+    public Maze(long seed) {
+        this(DEFAULT_SIZE, DEFAULT_SIZE, seed);
+    }
+
+    //Constructor: builds a maze of the given size with a single monster
+    public Maze(int width, int height, long seed) {
+        this(width, height, 1, seed);
+    }
+
+    //Constructor: builds a maze of the given size and places all game entities
+    public Maze(int width, int height, int monsterCount, long seed) {
+        this(Terrain.generate(width, height, seed), monsterCount);
+    }
+
+    /* Constructor: places all game entities on an existing terrain, which stays shared with every
+       other maze built on it. The result is the maze its seed builds: placement draws from the
+       same stream as if the terrain had just been generated. */
+    public Maze(Terrain terrain, int monsterCount) {
+        this(terrain);
+        if (monsterCount < 1) {
+            throw new IllegalArgumentException("A maze needs at least one monster, got " + monsterCount);
+        }
+        terrain.skipLayout(random);
+        placeEntities(monsterCount);
+        if (PRINT_ON_BUILD) {
+            printMaze();
+        }
+    }
+
+    //Constructor: an empty maze on the terrain; snapshots add the entities with restoreEntities
+    Maze(Terrain terrain) {
+        this.terrain = terrain;
+        this.width = terrain.getWidth();
+        this.height = terrain.getHeight();
+        this.neighbourOffsets = new int[] {1, -1, width, -width};
+        this.monsterGrid = new MonsterGrid(width, height);
+        this.seed = terrain.getSeed();
+        this.random = new Random(seed);
+    }
+
+    //Places the player, monsters, keys, door, and trap into the maze
+    private void placeEntities(int monsterCount) {
+        //Place player and first monster at starting positions
+        player = new Player(1, 1);
+        addMonster(openCellNear(width - 2, height - 2));
+
+        //Collect every cell each kind of entity could go on, in one pass over the layout
+        SpawnPool deadEnds = new SpawnPool();
+        SpawnPool openCells = new SpawnPool();
+        SpawnPool lairs = new SpawnPool();
+        for (int i = width; i < width * (height - 1); i++) {
+            if (isValidSpawn(KEY, i)) deadEnds.add(i);
+            if (isValidSpawn(TRAP, i)) openCells.add(i);
+            if (isLair(i)) lairs.add(i);
+        }
+
+        //Place four keys randomly in the maze, then one door
+        for (int i = 0; i < 4; i++) {
+            placeRequired(KEY, deadEnds);
+            totalKeys++;
+        }
+        placeRequired(DOOR, deadEnds);
+
+        //Place twelve traps randomly
+        for (int i = 0; i < 12; i++) {
+            placeEntity(TRAP, openCells);
+        }
+
+        //Spread any further monsters over the empty cells away from the player
+        if (monsterCount > 1) {
+            lairs.retain(this::isLair); //Keys, the door and traps have taken some of them since
+            for (int i = 1; i < monsterCount; i++) {
+                int cell = lairs.take(random);
+                if (cell < 0) break;
+                addMonster(cell);
+            }
+        }
+    }
+
+    //Places an entity the maze cannot be won without, or gives up on a layout with no room left for it
+    private void placeRequired(char entity, SpawnPool pool) {
+        if (!placeEntity(entity, pool)) {
+            throw new IllegalStateException("No dead end left for '" + entity + "' in the " + width + "x" + height
+                    + " maze from seed " + seed);
+        }
+    }
+
+    //Creates a monster with its own RNG and registers it on the grid and in the index
+    private void addMonster(int cell) {
+        Monster monster = new Monster(monsters.size(), cell % width, cell / width, new GameRandom(random.nextLong()));
+        monsters.add(monster);
+        monsterGrid.add(monster.getId(), monster.getX(), monster.getY());
+    }
+
+    //Checks if an extra monster may start on the given cell
+    private boolean isLair(int i) {
+        int distance = Math.abs(i % width - player.getX()) + Math.abs(i / width - player.getY());
+        return symbolAt(i) == EMPTY && distance >= MONSTER_SPAWN_DISTANCE;
+    }
+
+    //Returns the open cell closest to the given one, scanning back towards the top-left corner
+    private int openCellNear(int x, int y) {
+        for (int i = index(x, y); i > 0; i--) {
+            if (symbolAt(i) == EMPTY) return i;
+        }
+        return index(1, 1);
+    }
+
+    /* Draws cells from the pool until one still accepts the entity and places it there.
+       Earlier placements can only rule cells out, so each stale candidate is dropped for good
+       and placement ends after at most one pass over the pool. Returns false if none was left. */
+    private boolean placeEntity(char entity, SpawnPool pool) {
+        int cell;
+        do {
+            cell = pool.take(random);
+            if (cell < 0) return false;
+        } while (!isValidSpawn(entity, cell));
+        items.put(cell, entity);
+        return true;
+    }
+
+    //Checks if an entity can be placed at the given cell
+    private boolean isValidSpawn(char entity, int i) {
+        //Spot must be empty; the outer wall then keeps every neighbour inside the grid
+        if (symbolAt(i) != EMPTY) return false;
+
+        //Check surrounding (orthogonal) cells
+        int walls = 0;
+        int empty = 0;
+        int traps = 0;
+        for (int offset : neighbourOffsets) {
+            char c = symbolAt(i + offset);
+            if (c == WALL)       walls++;
+            else if (c == EMPTY) empty++;
+            else if (c == TRAP)  traps++;
+        }
+
+        //Placement rules
+        switch (entity) {
+            case KEY:
+            case DOOR:
+                //Must have 3 walls orthogonally adjacent
+                return walls >= 3;
+
+            case TRAP:
+                //Must have at least 3 empty neighbors and no adjacent traps
+                return empty >= 3 && traps == 0;
+
+            default:
+                return false;
+        }
+    }
+
+    //Cells an entity may be placed on, sampled without replacement
+    private static final class SpawnPool {
+        private int[] cells = new int[64];
+        private int size;
+
+        void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        //Drops the cells that no longer pass the test, keeping the rest in order
+        void retain(IntPredicate test) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (test.test(cells[i])) cells[kept++] = cells[i];
+            }
+            size = kept;
+        }
+
+        //Removes and returns a random cell, or -1 once the pool is empty
+        int take(Random random) {
+            if (size == 0) return -1;
+            int i = random.nextInt(size);
+            int cell = cells[i];
+            cells[i] = cells[--size];
+            return cell;
+        }
+    }
+
+    /* Checks that the player can reach every key and the door from the start.
+       Flood fills the walkable cells from the player; the door is reached but not walked
+       through, and keys count as open floor since the player picks them up. */
+    public boolean isSolvable() {
+        int cellCount = width * height;
+        long[] reached = new long[(cellCount + 63) >>> 6];
+        int[] stack = new int[cellCount];
+        int top = 0;
+        int start = index(player.getX(), player.getY());
+        stack[top++] = start;
+        reached[start >>> 6] |= 1L << start;
+
+        int keysFound = 0;
+        boolean doorFound = false;
+        while (top > 0) {
+            int current = stack[--top];
+            char item = items.get(current);
+            if (item == KEY) keysFound++;
+            if (item == DOOR) {
+                doorFound = true;
+                continue;
+            }
+
+            //The outer wall keeps every neighbour of an open cell inside the grid
+            for (int offset : neighbourOffsets) {
+                int next = current + offset;
+                if (terrain.isWall(next) || (reached[next >>> 6] & (1L << next)) != 0) continue;
+                reached[next >>> 6] |= 1L << next;
+                stack[top++] = next;
+            }
+        }
+        return doorFound && keysFound == totalKeys;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTotalKeys() {
+        return totalKeys;
+    }
+
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    //Returns the symbol shown on a cell: a wall, a monster, the player, an item or empty floor
+    public char getCell(int x, int y) {
+        return symbolAt(index(x, y));
+    }
+
+    private char symbolAt(int i) {
+        if (terrain.isWall(i)) return WALL;
+        int x = i % width, y = i / width;
+        if (monsterGrid.monsterAt(x, y) >= 0) return MONSTER;
+        if (player != null && player.getX() == x && player.getY() == y) return PLAYER;
+        return items.get(i);
+    }
+
+    /* Returns the symbol of a cell ignoring the player and monsters: a wall, an item or empty floor.
+       Pathfinding only needs this, and it reads nothing that moves while monsters decide. */
+    public char getGround(int x, int y) {
+        int i = index(x, y);
+        return terrain.isWall(i) ? WALL : items.get(i);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setCellListener(CellListener listener) {
+        this.cellListener = listener;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    //Returns the first monster, the one every maze has
+    public Monster getMonster() {
+        return monsters.get(0);
+    }
+
+    public List<Monster> getMonsters() {
+        return Collections.unmodifiableList(monsters);
+    }
+
+    //Returns the id of the monster standing on the cell, or -1 if there is none
+    public int monsterAt(int x, int y) {
+        return monsterGrid.monsterAt(x, y);
+    }
+
+    //Moves a monster to a saved position, for restoring saved states
+    void relocateMonster(Monster monster, int x, int y) {
+        int oldX = monster.getX(), oldY = monster.getY();
+        monsterGrid.move(monster.getId(), x, y);
+        monster.setPosition(x, y);
+        cellsChanged(oldX, oldY, x, y);
+    }
+
+    //Puts the player back on a saved position with a saved key count, for restoring saved states
+    void restorePlayer(int x, int y, int keysCollected) {
+        int oldX = player.getX(), oldY = player.getY();
+        player.restore(x, y, keysCollected);
+        playerFieldStale = true;
+        cellsChanged(oldX, oldY, x, y);
+    }
+
+    //Moves a monster in the spatial index; whatever item lies on either cell stays where it is
+    public void moveMonster(Monster monster, int newX, int newY) {
+        int oldX = monster.getX(), oldY = monster.getY();
+        monsterGrid.move(monster.getId(), newX, newY);
+        monster.setPosition(newX, newY);
+        cellsChanged(oldX, oldY, newX, newY);
+    }
+
+    /* Moves an entity from one cell to another. The player and monsters move in their own layer;
+       an item is lifted off the old cell, if it lies there, and put down on the new one. */
+    public void updatePosition(int oldX, int oldY, int newX, int newY, char entity) {
+        switch (entity) {
+            case PLAYER:
+                player.setPosition(newX, newY);
+                if (oldX != newX || oldY != newY) {
+                    playerFieldStale = true;
+                }
+                cellsChanged(oldX, oldY, newX, newY);
+                return;
+
+            case MONSTER:
+                int id = monsterGrid.monsterAt(oldX, oldY);
+                if (id < 0) {
+                    throw new IllegalArgumentException("No monster at " + oldX + "," + oldY);
+                }
+                moveMonster(monsters.get(id), newX, newY);
+                return;
+
+            default:
+                int oldIndex = index(oldX, oldY);
+                if (items.get(oldIndex) == entity) {
+                    items.remove(oldIndex);
+                    blockingChanged(entity, EMPTY);
+                }
+                putItem(newX, newY, entity);
+                cellsChanged(oldX, oldY, newX, newY);
+        }
+    }
+
+    //Puts an item on a cell, or clears it with ' '. Walls, the player and monsters cannot be set this way.
+    public void setCell(int x, int y, char entity) {
+        char old = items.get(index(x, y));
+        putItem(x, y, entity);
+        if (cellListener != null && old != entity) {
+            cellListener.cellChanged(x, y);
+        }
+    }
+
+    private void putItem(int x, int y, char item) {
+        if (item == WALL || item == PLAYER || item == MONSTER) {
+            throw new IllegalArgumentException("'" + item + "' is not an item");
+        }
+        if (terrain.isWall(x, y)) {
+            throw new IllegalArgumentException("Cannot put an item inside the wall at " + x + "," + y);
+        }
+        int i = index(x, y);
+        char old = item == EMPTY ? items.remove(i) : items.get(i);
+        if (item != EMPTY) {
+            items.put(i, item);
+        }
+        blockingChanged(old, item);
+    }
+
+    private void cellsChanged(int oldX, int oldY, int newX, int newY) {
+        if (cellListener != null) {
+            cellListener.cellChanged(oldX, oldY);
+            cellListener.cellChanged(newX, newY);
+        }
+    }
+
+    //Keys and doors block monsters, so adding or removing one changes every path and the field
+    private void blockingChanged(char old, char entity) {
+        if (blocksMonster(old) != blocksMonster(entity)) {
+            version++;
+            playerFieldStale = true;
+        }
+    }
+
+    /* Counts changes to which cells monsters can walk through. Player, monster and trap changes
+       leave it alone, so a path found at one version stays valid until it moves on. */
+    public int getVersion() {
+        return version;
+    }
+
+    /* Returns the flat index of the next cell on a shortest monster path from (x, y) to the player,
+       or -1 if the player cannot be reached. The shared field is only rebuilt after the player
+       has changed cells, so any number of chasers can query it every tick. */
+    public int stepTowardPlayer(int x, int y) {
+        refreshPlayerField();
+        return playerField.stepToward(x, y);
+    }
+
+    //Returns the number of monster steps from (x, y) to the player, or -1 if the player cannot be reached
+    public int distanceToPlayer(int x, int y) {
+        refreshPlayerField();
+        return playerField.distanceAt(x, y);
+    }
+
+    /* Rebuilds the player distance field if the player or the walkable layout changed, and says
+       whether it did. Call before letting several threads query stepTowardPlayer, so they only
+       read it. The time goes to whoever times the call, such as a monster deciding its move. */
+    public boolean refreshPlayerField() {
+        if (!playerFieldStale) return false;
+        playerField.compute(this, player.getX(), player.getY());
+        playerFieldStale = false;
+        return true;
+    }
+
+    private static boolean blocksMonster(char cell) {
+        return cell == KEY || cell == DOOR;
+    }
+
+    //Checks if two cells can see each other along a row or column with no wall in between
+    public boolean inLineOfSight(int x1, int y1, int x2, int y2) {
+        return terrain.inLineOfSight(x1, y1, x2, y2);
+    }
+
+    //Checks if a specific cell can be walked through (not a wall)
+    public boolean isWalkable(int x, int y) {
+        return (x >= 0 && x < width && y >= 0 && y < height && !terrain.isWall(index(x, y)));
+    }
+
+    //Row-major position of a cell in the flat store
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+
+    //Bytes writeEntities will produce for the current items
+    int entityStateSize() {
+        return 4 + items.size() * 5;
+    }
+
+    /* Saves every item as its cell index and symbol, in index order. Walls come from the seed,
+       and the player and monsters are saved with their own state. */
+    void writeEntities(ByteBuffer buffer) {
+        int[] cells = items.sortedCells();
+        buffer.putInt(cells.length);
+        for (int i : cells) {
+            buffer.putInt(i).put((byte) items.get(i));
+        }
+    }
+
+    /* Restores items saved by writeEntities on a maze built from the same seed. Player and monster
+       entries, which older saves list alongside the items, are skipped. */
+    void readEntities(ByteBuffer buffer) {
+        ItemLayer previous = new ItemLayer();
+        int[] previousCells = items.sortedCells();
+        for (int i : previousCells) {
+            previous.put(i, items.get(i));
+        }
+        items.clear();
+
+        int count = buffer.getInt();
+        int[] restoredCells = new int[count];
+        int restored = 0;
+        for (int n = 0; n < count; n++) {
+            int i = buffer.getInt();
+            char item = (char) buffer.get();
+            if (i < 0 || i >= width * height) {
+                throw new IndexOutOfBoundsException("Item cell " + i + " is outside the maze");
+            }
+            if (item == PLAYER || item == MONSTER) continue;
+            items.put(i, item);
+            restoredCells[restored++] = i;
+        }
+
+        //Report every cell whose item appeared, vanished or changed
+        for (int i : previousCells) {
+            itemRestored(i, previous.get(i));
+        }
+        for (int n = 0; n < restored; n++) {
+            int i = restoredCells[n];
+            if (previous.get(i) == EMPTY) itemRestored(i, EMPTY);
+        }
+        playerFieldStale = true;
+    }
+
+    private void itemRestored(int i, char old) {
+        char item = items.get(i);
+        if (item == old) return;
+        blockingChanged(old, item);
+        if (cellListener != null) {
+            cellListener.cellChanged(i % width, i / width);
+        }
+    }
+
+    //Puts the player, monsters and items of a snapshot onto a maze rebuilt from its walls
+    void restoreEntities(int totalKeys, Player player, int monsterCount, ByteBuffer buffer) {
+        this.totalKeys = totalKeys;
+        this.player = player;
+        for (int id = 0; id < monsterCount; id++) {
+            Monster monster = new Monster(id, 0, 0, new GameRandom(0));
+            monsters.add(monster);
+            monsterGrid.add(id, 0, 0);
+            monster.readState(buffer, this);
+        }
+        readEntities(buffer);
+    }
+
+    //Prints the current maze layout in a single write
+    public void printMaze() {
+        StringBuilder text = new StringBuilder((width + 1) * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                text.append(symbolAt(index(x, y)));
+            }
+            text.append('\n');
+        }
+        System.out.print(text);
+    }
+}
@@ -0,0 +1,66 @@
+package Game;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/* Builds batches of solvable mazes in parallel.
+   Every maze in a batch gets its own seed drawn up front from one SplittableRandom, so a batch
+   is reproducible from its seed no matter how the work is spread over threads. Layouts where the
+   player cannot reach every key and the door, or with no dead end left for one of them, are
+   rejected and rebuilt from the next seed in that maze's own sequence. */
+public final class MazeGenerator {
+    public static final int DEFAULT_MAX_ATTEMPTS = 1000;
+
+    private final int width;
+    private final int height;
+    private final int monsterCount;
+    private final int maxAttempts;
+
+    public MazeGenerator(int width, int height) {
+        this(width, height, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public MazeGenerator(int width, int height, int maxAttempts) {
+        this(width, height, 1, maxAttempts);
+    }
+
+    public MazeGenerator(int width, int height, int monsterCount, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1, got " + maxAttempts);
+        }
+        this.width = width;
+        this.height = height;
+        this.monsterCount = monsterCount;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /* Streams count solvable mazes in batch order, generating them in parallel on the
+       ForkJoin pool that runs the terminal operation (the common pool unless the stream
+       is consumed inside another ForkJoinPool). */
+    public Stream<Maze> generate(int count, long seed) {
+        long[] seeds = new SplittableRandom(seed).longs(count).toArray();
+        return IntStream.range(0, count)
+                .parallel()
+                .mapToObj(i -> generate(seeds[i]));
+    }
+
+    //Builds a single solvable maze, retrying with seeds derived from the given one
+    public Maze generate(long seed) {
+        SplittableRandom attempts = new SplittableRandom(seed);
+        long attemptSeed = seed;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            try {
+                Maze maze = new Maze(width, height, monsterCount, attemptSeed);
+                if (maze.isSolvable()) {
+                    return maze;
+                }
+            } catch (IllegalStateException e) {
+                //Too few dead ends for every key and the door; reject it like an unsolvable layout
+            }
+            attemptSeed = attempts.nextLong();
+        }
+        throw new IllegalStateException("No solvable " + width + "x" + height + " maze found in "
+                + maxAttempts + " attempts from seed " + seed);
+    }
+}
@@ -0,0 +1,133 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Versioned binary snapshots of a maze: its layout plus the player, monsters and entity cells.
+   Walls are packed one bit per cell and every other entity is stored sparsely as an index and
+   symbol, so a classic 25x25 maze takes about 250 bytes. Loading a snapshot rebuilds the maze
+   directly from the bits instead of generating it again. A level pack is a file of many snapshots
+   behind a count, read through a memory-mapped buffer. */
+public final class MazeSnapshot {
+    private static final int MAGIC = 0x4D5A534E;      //"MZSN"
+    private static final int PACK_MAGIC = 0x4D5A504B; //"MZPK"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 4 + 4 + 8 + 4 + 4 * 3 + 4;
+
+    private MazeSnapshot() {}
+
+    //Bytes write will produce for the maze in its current state
+    public static int size(Maze maze) {
+        return HEADER_SIZE + maze.getMonsters().size() * Monster.STATE_SIZE
+                + maze.getTerrain().stateSize() + maze.entityStateSize();
+    }
+
+    public static void write(Maze maze, ByteBuffer buffer) {
+        Player player = maze.getPlayer();
+        List<Monster> monsters = maze.getMonsters();
+        buffer.putInt(MAGIC).putShort(VERSION)
+              .putInt(maze.getWidth()).putInt(maze.getHeight())
+              .putLong(maze.getSeed())
+              .putInt(maze.getTotalKeys())
+              .putInt(player.getX()).putInt(player.getY()).putInt(player.getKeysCollected())
+              .putInt(monsters.size());
+        maze.getTerrain().write(buffer);
+        for (Monster monster : monsters) {
+            monster.writeState(buffer);
+        }
+        maze.writeEntities(buffer);
+    }
+
+    //Reads one snapshot from the buffer's position, leaving the position just past it
+    public static Maze read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a maze snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported maze snapshot version " + version);
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            long seed = buffer.getLong();
+            int totalKeys = buffer.getInt();
+            Player player = new Player(0, 0);
+            player.restore(buffer.getInt(), buffer.getInt(), buffer.getInt());
+            int monsterCount = buffer.getInt();
+
+            Maze maze = new Maze(Terrain.read(width, height, seed, buffer));
+            maze.restoreEntities(totalKeys, player, monsterCount, buffer);
+            return maze;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Maze snapshot is truncated", e);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Maze snapshot places an entity outside the maze", e);
+        }
+    }
+
+    public static void save(Maze maze, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size(maze));
+        write(maze, buffer);
+        buffer.flip();
+        writeFile(buffer, file);
+    }
+
+    public static Maze load(Path file) throws IOException {
+        return read(map(file));
+    }
+
+    //Saves several mazes into one level pack
+    public static void saveAll(List<Maze> mazes, Path file) throws IOException {
+        int size = 4 + 4;
+        for (Maze maze : mazes) {
+            size += size(maze);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(PACK_MAGIC).putInt(mazes.size());
+        for (Maze maze : mazes) {
+            write(maze, buffer);
+        }
+        buffer.flip();
+        writeFile(buffer, file);
+    }
+
+    public static List<Maze> loadAll(Path file) throws IOException {
+        ByteBuffer buffer = map(file);
+        if (buffer.remaining() < 8 || buffer.getInt() != PACK_MAGIC) {
+            throw new IOException(file + " is not a level pack");
+        }
+        int count = buffer.getInt();
+        List<Maze> mazes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                mazes.add(read(buffer));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Level " + i + " in " + file + " is corrupt: " + e.getMessage(), e);
+            }
+        }
+        return mazes;
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static void writeFile(ByteBuffer buffer, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Game;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/* Overview of the whole maze for the side panel.
+   Each pixel stands for a square block of cells and is drawn once when the minimap is built;
+   afterwards only the blocks containing changed cells are recoloured. Blocks show the most
+   important entity inside them, so entities stay visible even on very large mazes. */
+public final class Minimap {
+    private final Maze maze;
+    private final int block;        //Cells covered by one pixel along each side
+    private final int scale;        //Screen pixels drawn for each minimap pixel
+    private final BufferedImage image;
+
+    public Minimap(Maze maze, int maxSize) {
+        this.maze = maze;
+        int largest = Math.max(maze.getWidth(), maze.getHeight());
+        this.block = (largest + maxSize - 1) / maxSize;
+        int blocksX = (maze.getWidth() + block - 1) / block;
+        int blocksY = (maze.getHeight() + block - 1) / block;
+        this.scale = Math.max(1, maxSize / Math.max(blocksX, blocksY));
+        this.image = new BufferedImage(blocksX, blocksY, BufferedImage.TYPE_INT_RGB);
+
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                image.setRGB(bx, by, blockColor(bx, by));
+            }
+        }
+    }
+
+    //Recolours the block holding the given cell. Returns true if its colour changed.
+    public boolean cellChanged(int x, int y) {
+        int bx = x / block, by = y / block;
+        int color = blockColor(bx, by);
+        if (image.getRGB(bx, by) == color) return false;
+        image.setRGB(bx, by, color);
+        return true;
+    }
+
+    //Screen area of the block holding the given cell, relative to the minimap's corner
+    public Rectangle blockBounds(int x, int y) {
+        return new Rectangle(x / block * scale, y / block * scale, scale, scale);
+    }
+
+    //Draws the minimap with its top-left corner at (left, top)
+    public void draw(Graphics g, int left, int top) {
+        g.drawImage(image, left, top, getPixelWidth(), getPixelHeight(), null);
+    }
+
+    //Returns a copy of the minimap's pixels that later recolouring leaves alone
+    public BufferedImage copyImage() {
+        return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+    }
+
+    //Screen pixels per maze cell, which may be fractional on large mazes
+    public double getCellScale() {
+        return (double) scale / block;
+    }
+
+    public int getPixelWidth() {
+        return image.getWidth() * scale;
+    }
+
+    public int getPixelHeight() {
+        return image.getHeight() * scale;
+    }
+
+    //Picks the colour of the most important entity in a block, or of its main terrain if it has none
+    private int blockColor(int bx, int by) {
+        int bestRank = 0;
+        char best = ' ';
+        int walls = 0, total = 0;
+        int endX = Math.min(maze.getWidth(), (bx + 1) * block);
+        int endY = Math.min(maze.getHeight(), (by + 1) * block);
+        for (int y = by * block; y < endY; y++) {
+            for (int x = bx * block; x < endX; x++) {
+                char cell = maze.getCell(x, y);
+                int rank = rank(cell);
+                if (rank > bestRank) {
+                    bestRank = rank;
+                    best = cell;
+                }
+                if (cell == '#') walls++;
+                total++;
+            }
+        }
+        if (bestRank == 0 && walls * 2 > total) {
+            best = '#';
+        }
+        return GamePanel.colorOf(best).getRGB();
+    }
+
+    private static int rank(char cell) {
+        switch (cell) {
+            case 'P': return 6;
+            case 'M': return 5;
+            case 'D': return 4;
+            case 'K': return 3;
+            case 'T': return 2;
+            default:  return 0;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/* The Monster class represents the enemy in the maze.
+   It can pathfind, roam randomly, detect the player via line of sight or proximity,
+   and becomes enraged once the simulation's rage countdown runs out. */
+public class Monster {
+    private final int id;                     //Index of the monster in its maze
+    private int x, y;                         //Current position of the monster
+    private int lastMoveX = 0, lastMoveY = 0; //Last movement direction for smarter roaming
+
+    private boolean enraged = false;          //Once enraged, the monster always knows where the player is
+    private final GameRandom random;          //Own RNG seeded from the maze, so roaming is reproducible
+    private Pathfinder pathfinder;            //Created on first use, keeps its search buffers and recent paths
+    private boolean roamPlanned = false;      //Whether the move from decideMove is a roaming step
+
+    public Monster(int id, int x, int y, GameRandom random) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        this.random = random;
+    }
+
+    public boolean isEnraged() {
+        return enraged;
+    }
+
+    //Called by the simulation once the rage countdown runs out
+    public void enrage() {
+        enraged = true;
+    }
+
+    //Bytes written by writeState
+    static final int STATE_SIZE = 4 + 4 + 1 + 1 + 1 + 8;
+
+    //Saves position, roaming direction, rage and RNG state
+    void writeState(ByteBuffer buffer) {
+        buffer.putInt(x).putInt(y)
+              .put((byte) lastMoveX).put((byte) lastMoveY)
+              .put((byte) (enraged ? 1 : 0))
+              .putLong(random.getState());
+    }
+
+    //Restores a state saved by writeState, moving the monster in the maze's index
+    void readState(ByteBuffer buffer, Maze maze) {
+        int savedX = buffer.getInt();
+        int savedY = buffer.getInt();
+        lastMoveX = buffer.get();
+        lastMoveY = buffer.get();
+        enraged = buffer.get() != 0;
+        random.setState(buffer.getLong());
+        maze.relocateMonster(this, savedX, savedY);
+    }
+
+    public int getId() { return id; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+
+    public void setPosition(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    //Moves the monster toward the player or roams randomly if out of range.
+    public void move(Player player, Maze maze) {
+        commitMove(decideMove(player, maze), maze);
+    }
+
+    /* Picks the cell the monster wants to step onto next as a flat index, or -1 to stay put.
+       Only reads the maze and this monster's own state, so every monster can decide at the
+       same time before any of them moves. */
+    public int decideMove(Player player, Maze maze) {
+        if (isPlayerWithinRange(player, 3) || seesPlayer(player, maze)) {
+            roamPlanned = false;
+            long started = GameMetrics.start();
+            int step = pathfinder().firstStep(x, y, player.getX(), player.getY(), maze);
+            GameMetrics.pathfind(started); //Lock-free, as monsters may decide in parallel
+            return step;
+        }
+        roamPlanned = true;
+        return pickRoamingStep(maze);
+    }
+
+    //Steps onto the cell chosen by decideMove
+    public void commitMove(int target, Maze maze) {
+        if (target < 0) return;
+        int newX = target % maze.getWidth();
+        int newY = target / maze.getWidth();
+        if (roamPlanned) {
+            lastMoveX = newX - x;
+            lastMoveY = newY - y;
+        }
+        maze.moveMonster(this, newX, newY);
+    }
+
+    //Uses the given pathfinder instead of the one -Dmaze.pathfinder picks
+    public void setPathfinder(Pathfinder pathfinder) {
+        this.pathfinder = pathfinder;
+    }
+
+    //Steps along a shortest path toward a target coordinate.
+    public void pathfindTo(int targetX, int targetY, Maze maze) {
+        long started = GameMetrics.start();
+        int step = pathfinder().firstStep(x, y, targetX, targetY, maze);
+        GameMetrics.pathfind(started);
+        if (step >= 0) {
+            maze.moveMonster(this, step % maze.getWidth(), step / maze.getWidth());
+        }
+    }
+
+    private Pathfinder pathfinder() {
+        if (pathfinder == null) {
+            pathfinder = Pathfinder.configured(PathPolicy.MONSTER).cached();
+        }
+        return pathfinder;
+    }
+
+    //Roams the maze in a semi-random way, avoiding dead ends.
+    public void roamRandomly(Maze maze) {
+        roamPlanned = true;
+        commitMove(pickRoamingStep(maze), maze);
+    }
+
+    //Chooses a roaming step that avoids backtracking and dead ends where possible
+    private int pickRoamingStep(Maze maze) {
+        int[][] directions = {{-1,0}, {1,0}, {0,-1}, {0,1}};
+        List<int[]> validMoves = new ArrayList<>();
+
+        for (int[] dir : directions) {
+            int newX = x + dir[0], newY = y + dir[1];
+
+            //Avoid moving backwards
+            if (dir[0] == -lastMoveX && dir[1] == -lastMoveY) continue;
+
+            if (canMoveTo(newX, newY, maze) && !isDeadEnd(newX, newY, maze)) {
+                validMoves.add(dir);
+            }
+        }
+
+        //If no smart moves, just pick any walkable one
+        if (validMoves.isEmpty()) {
+            for (int[] dir : directions) {
+                int newX = x + dir[0], newY = y + dir[1];
+                if (canMoveTo(newX, newY, maze)) {
+                    validMoves.add(dir);
+                }
+            }
+        }
+
+        if (validMoves.isEmpty()) return -1;
+        int[] move = validMoves.get(random.nextInt(validMoves.size()));
+        return (y + move[1]) * maze.getWidth() + x + move[0];
+    }
+
+    /* Moves directly toward the player by comparing coordinates.
+       Used if already adjacent and not pathfinding.*/
+    public void chasePlayer(Player player, Maze maze) {
+        int dx = Integer.compare(player.getX(), x);
+        int dy = Integer.compare(player.getY(), y);
+
+        int newX = x + dx, newY = y + dy;
+        if (canMoveTo(newX, newY, maze)) {
+            maze.moveMonster(this, newX, newY);
+        }
+    }
+
+    //Checks if the monster is within a given range of the player.
+    private boolean isPlayerWithinRange(Player player, int range) {
+        if (enraged) return true;
+        int dx = Math.abs(player.getX() - x);
+        int dy = Math.abs(player.getY() - y);
+        return dx + dy <= range;
+    }
+
+    //Checks if the monster can see the player in straight lines (no wall in between).
+    public boolean seesPlayer(Player player, Maze maze) {
+        return maze.inLineOfSight(x, y, player.getX(), player.getY());
+    }
+
+    //Checks if the monster is occupying the same cell as the player.
+    public boolean checkIfCaught(Player player) {
+        return player.getX() == x && player.getY() == y;
+    }
+
+    //Determines if a given location is a dead end.
+    private boolean isDeadEnd(int x, int y, Maze maze) {
+        int walkableCount = 0;
+        int[][] directions = {{-1,0}, {1,0}, {0,-1}, {0,1}};
+
+        for (int[] d : directions) {
+            if (canMoveTo(x + d[0], y + d[1], maze)) {
+                walkableCount++;
+            }
+        }
+
+        return walkableCount <= 1; //0 or 1 exits = dead end
+    }
+
+    //Validates whether the monster can move to a given tile.
+    private boolean canMoveTo(int newX, int newY, Maze maze) {
+        if (!maze.isWalkable(newX, newY)) return false;
+        char cell = maze.getGround(newX, newY);
+        return cell != 'K' && cell != 'D'; //Don't step on keys or doors
+    }
+}
@@ -0,0 +1,81 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Uniform-grid spatial index of monster positions.
+   The maze is split into square buckets of cells, and each bucket keeps an intrusive
+   linked list of the monsters standing in it, so finding the monster on a cell only
+   looks at the few monsters sharing its bucket, however many monsters the maze holds. */
+public final class MonsterGrid {
+    private static final int BUCKET_SHIFT = 3; //Buckets cover 8x8 cells
+
+    private final int bucketsX;
+    private final int[] heads;                 //First monster in each bucket, -1 if empty
+    private int[] next = new int[0];           //Next monster in the same bucket, -1 at the end
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+
+    public MonsterGrid(int width, int height) {
+        bucketsX = (width + (1 << BUCKET_SHIFT) - 1) >> BUCKET_SHIFT;
+        int bucketsY = (height + (1 << BUCKET_SHIFT) - 1) >> BUCKET_SHIFT;
+        heads = new int[bucketsX * bucketsY];
+        Arrays.fill(heads, -1);
+    }
+
+    //Adds a monster; ids are expected to be handed out in order starting at zero
+    public void add(int id, int x, int y) {
+        if (id >= xs.length) {
+            int capacity = Math.max(4, id * 2);
+            next = Arrays.copyOf(next, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+        }
+        xs[id] = x;
+        ys[id] = y;
+        link(id);
+    }
+
+    public void move(int id, int newX, int newY) {
+        if (bucket(xs[id], ys[id]) != bucket(newX, newY)) {
+            unlink(id);
+            xs[id] = newX;
+            ys[id] = newY;
+            link(id);
+        } else {
+            xs[id] = newX;
+            ys[id] = newY;
+        }
+    }
+
+    //Returns the id of a monster standing on the cell, or -1 if there is none
+    public int monsterAt(int x, int y) {
+        for (int id = heads[bucket(x, y)]; id >= 0; id = next[id]) {
+            if (xs[id] == x && ys[id] == y) return id;
+        }
+        return -1;
+    }
+
+    private void link(int id) {
+        int b = bucket(xs[id], ys[id]);
+        next[id] = heads[b];
+        heads[b] = id;
+    }
+
+    private void unlink(int id) {
+        int b = bucket(xs[id], ys[id]);
+        if (heads[b] == id) {
+            heads[b] = next[id];
+            return;
+        }
+        for (int prev = heads[b]; prev >= 0; prev = next[prev]) {
+            if (next[prev] == id) {
+                next[prev] = next[id];
+                return;
+            }
+        }
+    }
+
+    private int bucket(int x, int y) {
+        return (y >> BUCKET_SHIFT) * bucketsX + (x >> BUCKET_SHIFT);
+    }
+}
@@ -0,0 +1,113 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Remembers recent paths so a searcher following one does not search the maze again every step.
+   Each path is filed under its start, its target and the maze version it was found at. Handing
+   out a step also files the rest of the path under that step, so a monster walking toward the
+   same target finds its next step here without a search. Player, monster and trap moves do not
+   change which cells monsters can enter, so they leave entries valid. Picking up a key or
+   opening a door bumps the maze version, which retires every entry at once. */
+public final class PathCache implements Pathfinder {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Pathfinder pathfinder;      //Searches on a miss
+    private final int mask;
+    private final long[] keys;                //Start and target of each slot, -1 if empty
+    private final int[][] paths;
+    private final int[] offsets;              //Position in the path of the step after the slot's start
+    private final int[] versions;             //Maze version the path was found at
+    private Maze maze;                        //Maze the entries belong to
+    private int expanded = 0;
+    private long hits = 0, misses = 0;
+
+    public PathCache(Pathfinder pathfinder) {
+        this(pathfinder, DEFAULT_CAPACITY);
+    }
+
+    //Capacity is rounded up to a power of two; slots are direct-mapped, so a clash replaces the older path
+    public PathCache(Pathfinder pathfinder, int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.pathfinder = pathfinder;
+        this.mask = slots - 1;
+        this.keys = new long[slots];
+        this.paths = new int[slots][];
+        this.offsets = new int[slots];
+        this.versions = new int[slots];
+        Arrays.fill(keys, -1);
+    }
+
+    @Override
+    public int firstStep(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int slot = lookup(startX, startY, targetX, targetY, maze);
+        int[] path = paths[slot];
+        int offset = offsets[slot];
+        if (offset >= path.length) return -1;
+
+        int step = path[offset];
+        if (offset + 1 < path.length) {
+            store(key(step, targetY * maze.getWidth() + targetX), path, offset + 1, versions[slot]);
+        }
+        return step;
+    }
+
+    @Override
+    public int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze) {
+        int slot = lookup(startX, startY, targetX, targetY, maze);
+        int[] path = paths[slot];
+        return offsets[slot] == 0 ? path.clone() : Arrays.copyOfRange(path, offsets[slot], path.length);
+    }
+
+    @Override
+    public Pathfinder cached() {
+        return this;
+    }
+
+    //Nodes the wrapped pathfinder expanded for the last call, 0 if it was answered from the cache
+    @Override
+    public int nodesExpanded() {
+        return expanded;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+
+    //Returns the slot holding a current path for the query, searching and filing one first on a miss
+    private int lookup(int startX, int startY, int targetX, int targetY, Maze maze) {
+        if (maze != this.maze) {
+            Arrays.fill(keys, -1);
+            Arrays.fill(paths, null);
+            this.maze = maze;
+        }
+        int width = maze.getWidth();
+        long key = key(startY * width + startX, targetY * width + targetX);
+        int slot = slot(key);
+        if (keys[slot] == key && versions[slot] == maze.getVersion()) {
+            hits++;
+            expanded = 0;
+            return slot;
+        }
+
+        misses++;
+        int[] path = pathfinder.findPath(startX, startY, targetX, targetY, maze);
+        expanded = pathfinder.nodesExpanded();
+        return store(key, path, 0, maze.getVersion());
+    }
+
+    private int store(long key, int[] path, int offset, int version) {
+        int slot = slot(key);
+        keys[slot] = key;
+        paths[slot] = path;
+        offsets[slot] = offset;
+        versions[slot] = version;
+        return slot;
+    }
+
+    private static long key(int start, int target) {
+        return ((long) start << 32) | target;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
@@ -0,0 +1,18 @@
+package Game;
+
+/* Decides which cells a path may use and what stepping onto each one costs.
+   Costs must be at least 1 so the Manhattan distance never overestimates a path.
+   BFS and jump point search only look at passability; A* also weighs the costs. */
+public interface PathPolicy {
+    int BLOCKED = -1;
+
+    //Cost of stepping onto a cell holding the given symbol, or BLOCKED if it cannot be entered
+    int cost(char cell);
+
+    default boolean isPassable(char cell) {
+        return cost(cell) != BLOCKED;
+    }
+
+    //Monsters cannot walk through walls, and keys and doors block them too
+    PathPolicy MONSTER = cell -> cell == '#' || cell == 'K' || cell == 'D' ? BLOCKED : 1;
+}
@@ -0,0 +1,54 @@
+package Game;
+
+import java.util.Locale;
+
+/* Finds the next step of a shortest path between two cells.
+   Implementations keep their search buffers between calls, so one instance should not be
+   shared between threads. Which one Monster chases with is set with -Dmaze.pathfinder=field,
+   bfs, astar, jps, hpa or auto. Auto, the default, answers searches toward the player from the
+   maze's shared distance field, which every chaser reads, and hands any other search to the
+   fastest single search in PathfinderBenchmark, now the hierarchical one. Field does the same
+   with BFS behind it. */
+public interface Pathfinder {
+    int[] NO_PATH = new int[0];
+
+    /* Returns the flat index of the first cell on a shortest path from the start to the target,
+       or -1 if the target cannot be reached or the start is already on it. */
+    int firstStep(int startX, int startY, int targetX, int targetY, Maze maze);
+
+    /* Returns the flat indices of a shortest path from the start to the target, from the first
+       step up to and including the target, or NO_PATH if there is none. */
+    int[] findPath(int startX, int startY, int targetX, int targetY, Maze maze);
+
+    //Number of nodes the last search took off its open list
+    int nodesExpanded();
+
+    /* Returns this pathfinder behind a PathCache, for a caller that searches toward the same
+       target step after step, as a chasing monster does between the player's steps */
+    default Pathfinder cached() {
+        return new PathCache(this);
+    }
+
+    //Creates the pathfinder named by -Dmaze.pathfinder
+    static Pathfinder configured(PathPolicy policy) {
+        return create(configuredName(), policy);
+    }
+
+    //Name given with -Dmaze.pathfinder, in lower case, or auto if none was
+    static String configuredName() {
+        return System.getProperty("maze.pathfinder", "auto").toLowerCase(Locale.ROOT);
+    }
+
+    static Pathfinder create(String name, PathPolicy policy) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "field": return new FieldPathfinder(policy, new BfsPathfinder(policy));
+            case "bfs": return new BfsPathfinder(policy);
+            case "astar": return new AStarPathfinder(policy);
+            case "jps": return new JumpPointPathfinder(policy);
+            case "hpa": return new HierarchicalPathfinder(policy);
+            case "auto": return new FieldPathfinder(policy, new HierarchicalPathfinder(policy));
+            default:
+                throw new IllegalArgumentException("Unknown pathfinder " + name + ", expected field, bfs, astar, jps, hpa or auto");
+        }
+    }
+}
@@ -23,4 +23,11 @@ public final class Player {
     public void collectKey() {
         keysCollected++;
     }
+
+    //Puts the player back into a saved state
+    void restore(int x, int y, int keysCollected) {
+        this.x = x;
+        this.y = y;
+        this.keysCollected = keysCollected;
+    }
 }
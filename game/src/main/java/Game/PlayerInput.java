@@ -0,0 +1,183 @@
+package Game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Carries direction keys from whichever thread sees them into the simulation.
+   Key events are stamped with System.nanoTime() and put on a lock-free queue; the simulation
+   drains it at the start of each tick, so every change of direction lands on a tick boundary
+   and is recorded there for replays. The keys still held are kept in the order they were
+   pressed: releasing one falls back to the newest key still down, and only releasing the last
+   stops the player. A turn that has not been taken yet when its key comes up stays buffered
+   until the player can take it, for up to TURN_BUFFER_MS of game time, so tapping a key just
+   before a junction still turns there.
+
+   Key repeat is handled in two ways, both set in milliseconds. Some platforms send auto-repeat
+   as a release directly followed by a new press; a release is held back for the repeat window
+   and dropped if the same key is pressed again within it. Terminals send no releases at all,
+   so with a hold time a key counts as released once it has not repeated for that long. */
+public final class PlayerInput {
+    //What the input steers; GameSimulation and EndlessSimulation both are
+    public interface Target {
+        void setDesiredDirection(int dx, int dy);
+        void stopMovement();
+        boolean isTurnPending();
+        boolean isDesiredDirection(int dx, int dy);
+        long getTimeMillis();
+    }
+
+    public static final int DEFAULT_REPEAT_MS = Integer.getInteger("maze.input.repeat", 30); //-Dmaze.input.repeat=<ms>
+    private static final int TURN_BUFFER_MS = 300;
+    private static final int MAX_PENDING = 1024;        //Events kept between two ticks; more are dropped
+    private static final int STOP = 4;                  //Direction index of a stop event
+    private static final int[] DX = {0, 0, -1, 1};      //Up, down, left, right
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    private final Queue<long[]> events = new ConcurrentLinkedQueue<>(); //{nanos, direction, 1 pressed / 0 released}
+    private final AtomicInteger pending = new AtomicInteger(); //Events in the queue
+    private final long repeatNanos;                     //Window in which a release and new press count as repeat
+    private final long holdNanos;                       //How long a key without release events stays held, 0 if it sends them
+
+    //Everything below is only touched by the simulation thread in apply()
+    private Target simulation;                          //Game the held keys belong to
+    private final int[] held = new int[4];              //Directions held down, oldest first
+    private final long[] pressedAt = new long[4];       //When each direction was last pressed
+    private int heldCount = 0;
+    private int pendingRelease = -1;                    //Direction whose release waits out the repeat window
+    private long pendingSince;
+    private boolean turnBuffered = false;               //A released key's turn is still waiting to be taken
+    private long turnBufferedUntil;                     //Game time at which a buffered turn is given up
+
+    //Input from a source that reports key releases, with the configured repeat window
+    public PlayerInput() {
+        this(DEFAULT_REPEAT_MS, 0);
+    }
+
+    public PlayerInput(long repeatMillis, long holdMillis) {
+        this.repeatNanos = TimeUnit.MILLISECONDS.toNanos(repeatMillis);
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMillis);
+    }
+
+    //A direction key went down, or repeated; safe to call from any thread
+    public void press(int dx, int dy) {
+        offer(new long[] {System.nanoTime(), direction(dx, dy), 1});
+    }
+
+    //A direction key came up; safe to call from any thread
+    public void release(int dx, int dy) {
+        offer(new long[] {System.nanoTime(), direction(dx, dy), 0});
+    }
+
+    //Lets go of every key and stops the player; safe to call from any thread
+    public void stop() {
+        offer(new long[] {System.nanoTime(), STOP, 0});
+    }
+
+    //Queues an event unless MAX_PENDING are already waiting, which only a flood of input reaches
+    private void offer(long[] event) {
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            return;
+        }
+        events.add(event);
+    }
+
+    private static int direction(int dx, int dy) {
+        for (int d = 0; d < 4; d++) {
+            if (DX[d] == dx && DY[d] == dy) return d;
+        }
+        throw new IllegalArgumentException("Not a direction: " + dx + "," + dy);
+    }
+
+    //Applies every event that has arrived. Called by the simulation at the start of each tick.
+    void apply(Target simulation) {
+        if (simulation != this.simulation) {
+            this.simulation = simulation; //Keys held in an earlier game do not carry over
+            heldCount = 0;
+            pendingRelease = -1;
+            turnBuffered = false;
+        }
+
+        long[] event;
+        while ((event = events.poll()) != null) {
+            pending.decrementAndGet();
+            int direction = (int) event[1];
+            if (direction == STOP) {
+                heldCount = 0;
+                pendingRelease = -1;
+                turnBuffered = false;
+                simulation.stopMovement();
+            } else if (event[2] == 1) {
+                pressed(direction, event[0]);
+            } else if (repeatNanos > 0) {
+                if (pendingRelease >= 0) released(pendingRelease);
+                pendingRelease = direction;
+                pendingSince = event[0];
+            } else {
+                released(direction);
+            }
+        }
+
+        long now = System.nanoTime();
+        if (pendingRelease >= 0 && now - pendingSince >= repeatNanos) {
+            int direction = pendingRelease;
+            pendingRelease = -1;
+            released(direction);
+        }
+        if (holdNanos > 0) {
+            for (int i = heldCount - 1; i >= 0; i--) {
+                if (now - pressedAt[held[i]] >= holdNanos) released(held[i]);
+            }
+        }
+        if (turnBuffered && (!simulation.isTurnPending() || simulation.getTimeMillis() >= turnBufferedUntil)) {
+            turnBuffered = false;
+            resume();
+        }
+    }
+
+    private void pressed(int direction, long nanos) {
+        pressedAt[direction] = nanos;
+        if (pendingRelease == direction) {
+            pendingRelease = -1; //Released and pressed again at once: the key is just repeating
+            return;
+        }
+        if (heldCount > 0 && held[heldCount - 1] == direction) return; //Repeat of the newest key
+        removeHeld(direction);
+        held[heldCount++] = direction;
+        turnBuffered = false;
+        simulation.setDesiredDirection(DX[direction], DY[direction]);
+    }
+
+    private void released(int direction) {
+        if (!removeHeld(direction)) return;
+        if (simulation.isTurnPending() && simulation.isDesiredDirection(DX[direction], DY[direction])) {
+            turnBuffered = true;
+            turnBufferedUntil = simulation.getTimeMillis() + TURN_BUFFER_MS;
+        } else if (!turnBuffered) {
+            resume();
+        }
+    }
+
+    //Heads for the newest key still held, or stops if none is
+    private void resume() {
+        if (heldCount > 0) {
+            int direction = held[heldCount - 1];
+            simulation.setDesiredDirection(DX[direction], DY[direction]);
+        } else {
+            simulation.stopMovement();
+        }
+    }
+
+    private boolean removeHeld(int direction) {
+        for (int i = 0; i < heldCount; i++) {
+            if (held[i] == direction) {
+                System.arraycopy(held, i + 1, held, i, heldCount - i - 1);
+                heldCount--;
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,225 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Plays back a file written by ReplayRecorder.
+   The file is memory-mapped, so only the parts that are actually read get loaded. The maze is
+   rebuilt from the seed in the header, every monster is given the pathfinder named there, and
+   the recorded input is fed into a fresh simulation at the ticks it was originally given. seek() restores the nearest keyframe at or before the
+   requested tick and only replays the ticks after it. */
+public final class ReplayPlayer {
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4 * 4 + 1; //Up to the pathfinder name's length
+
+    private final MappedByteBuffer data;
+    private final GameSimulation simulation;
+    private final List<long[]> keyframes = new ArrayList<>(); //Tick and file offset of every keyframe
+    private final int bodyStart;                  //Offset of the first record, just past the header
+    private int bodyEnd;                          //Offset just past the last complete record
+
+    private int position;                         //Offset of the next unread record
+    private long lastTick;                        //Tick of the last record read
+    private long nextTick;                        //Tick the record at position applies at
+    private int recordType;                       //Type of the record at position
+    private int recordData;                       //Offset of the data following that record's type
+    private boolean verified = true;              //Cleared when the game drifts from the recorded states
+
+    public ReplayPlayer(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != ReplayRecorder.MAGIC) {
+            throw new IOException(file + " is not a replay file");
+        }
+        if (data.getShort(4) != ReplayRecorder.VERSION) {
+            throw new IOException(file + " has unsupported replay version " + data.getShort(4));
+        }
+        long seed = data.getLong(6);
+        int runNum = data.getInt(14);
+        int width = data.getInt(18);
+        int height = data.getInt(22);
+        int monsterCount = data.getInt(26);
+        byte[] pathfinder = new byte[data.get(30)];
+        if (data.limit() < HEADER_SIZE + pathfinder.length) {
+            throw new IOException(file + " ends inside its header");
+        }
+        data.get(HEADER_SIZE, pathfinder);
+        bodyStart = HEADER_SIZE + pathfinder.length;
+        simulation = new GameSimulation(new Maze(width, height, monsterCount, seed), runNum);
+        String pathfinderName = new String(pathfinder, StandardCharsets.US_ASCII);
+        for (Monster monster : simulation.getMaze().getMonsters()) {
+            monster.setPathfinder(Pathfinder.create(pathfinderName, PathPolicy.MONSTER).cached());
+        }
+
+        if (!readIndex()) {
+            scanIndex(); //The game was closed before it ended, so the file has no index
+        }
+        moveTo(bodyStart, 0);
+    }
+
+    //Applies any input recorded for the current tick, then runs it. Returns false once the replay is over.
+    public boolean step() {
+        while (position < bodyEnd && nextTick == simulation.getTicks()) {
+            applyRecord();
+        }
+        if (simulation.isFinished() || position >= bodyEnd) return false;
+        simulation.tick();
+        return true;
+    }
+
+    //Moves playback to the given tick, restoring the closest keyframe at or before it first
+    public void seek(long tick) {
+        long[] keyframe = null;
+        for (long[] candidate : keyframes) {
+            if (candidate[0] > tick) break;
+            keyframe = candidate;
+        }
+        if (keyframe == null) {
+            throw new IllegalArgumentException("No keyframe at or before tick " + tick);
+        }
+        moveTo((int) keyframe[1], keyframe[0]);
+        simulation.readState(data.slice(recordData + 4, data.getInt(recordData)));
+        nextRecord();
+        while (simulation.getTicks() < tick && step()) {
+            //Replay the ticks after the keyframe
+        }
+    }
+
+    /* Plays to the end of the recording. Returns true if every keyframe and the final state matched
+       what the recorder saw. */
+    public boolean playToEnd() {
+        while (step()) {
+            //Run every remaining tick
+        }
+        while (position < bodyEnd) {
+            applyRecord();
+        }
+        return verified;
+    }
+
+    private void applyRecord() {
+        if (recordType < ReplayRecorder.STOP) {
+            simulation.setDesiredDirection(recordType / 3 - 1, recordType % 3 - 1);
+        } else if (recordType == ReplayRecorder.STOP) {
+            simulation.stopMovement();
+        } else if (recordType == ReplayRecorder.KEYFRAME) {
+            verified &= matchesState(data.slice(recordData + 4, data.getInt(recordData)));
+        } else if (recordType == ReplayRecorder.END) {
+            verified &= simulation.getOutcome().ordinal() == data.get(recordData)
+                    && simulation.stateHash() == data.getLong(recordData + 1);
+        }
+        nextRecord();
+    }
+
+    private boolean matchesState(ByteBuffer saved) {
+        ByteBuffer current = ByteBuffer.allocate(simulation.stateSize());
+        simulation.writeState(current);
+        current.flip();
+        return current.equals(saved);
+    }
+
+    //Positions playback at the record starting at offset, whose tick is known
+    private void moveTo(int offset, long tick) {
+        position = offset;
+        lastTick = tick;
+        decode();
+        nextTick = tick;
+    }
+
+    private void nextRecord() {
+        position = recordEnd(recordType, recordData);
+        lastTick = nextTick;
+        decode();
+    }
+
+    //Reads the tick delta and type of the record at position
+    private void decode() {
+        if (position >= bodyEnd) return;
+        long delta = 0;
+        int shift = 0;
+        int offset = position;
+        byte b;
+        do {
+            b = data.get(offset++);
+            delta |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        nextTick = lastTick + delta;
+        recordType = data.get(offset);
+        recordData = offset + 1;
+    }
+
+    private int recordEnd(int type, int dataOffset) {
+        if (type == ReplayRecorder.KEYFRAME) return dataOffset + 4 + data.getInt(dataOffset);
+        if (type == ReplayRecorder.END) return dataOffset + 1 + 8;
+        if (type > ReplayRecorder.END) {
+            throw new IllegalStateException("Corrupt replay record " + type + " at offset " + position);
+        }
+        return dataOffset;
+    }
+
+    //Reads the keyframe index from the end of the file. Returns false if there is none.
+    private boolean readIndex() {
+        int end = data.limit();
+        if (end < bodyStart + 16 || data.getInt(end - 4) != ReplayRecorder.INDEX_MAGIC) return false;
+        bodyEnd = (int) data.getLong(end - 12);
+        int count = data.getInt(bodyEnd);
+        for (int i = 0; i < count; i++) {
+            int at = bodyEnd + 4 + i * 16;
+            keyframes.add(new long[] {data.getLong(at), data.getLong(at + 8)});
+        }
+        return true;
+    }
+
+    //Builds the keyframe index by walking the records, stopping at the first incomplete one
+    private void scanIndex() {
+        bodyEnd = data.limit();
+        position = bodyStart;
+        lastTick = 0;
+        int complete = bodyStart;
+        try {
+            while (position < bodyEnd) {
+                decode();
+                int end = recordEnd(recordType, recordData);
+                if (end > bodyEnd || recordType < 0) break;
+                if (recordType == ReplayRecorder.KEYFRAME) {
+                    keyframes.add(new long[] {nextTick, position});
+                }
+                lastTick = nextTick;
+                position = end;
+                complete = end;
+            }
+        } catch (IndexOutOfBoundsException | IllegalStateException e) {
+            //The file was cut off part way through a record
+        }
+        bodyEnd = complete;
+    }
+
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    //Plays every replay file given on the command line and reports whether each one reproduced
+    public static void main(String[] args) throws IOException {
+        boolean allVerified = true;
+        for (String arg : args) {
+            ReplayPlayer player = new ReplayPlayer(Paths.get(arg));
+            boolean ok = player.playToEnd();
+            GameSimulation simulation = player.getSimulation();
+            System.out.println(arg + ": " + simulation.getOutcome() + " after " + simulation.getTicks()
+                    + " ticks, " + (ok ? "verified" : "MISMATCH"));
+            allVerified &= ok;
+        }
+        if (!allVerified) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/* Writes a game to a compact binary replay file.
+   The header holds the seed and settings the maze is rebuilt from, and the name of the
+   pathfinder the monsters chased with, as it decides between paths of the same length. After it comes one record per
+   input change, each tagged with the number of ticks since the previous record as a variable-length
+   integer, so a held key costs a couple of bytes however long it is held. Keyframes with the full
+   game state are written every KEYFRAME_TICKS ticks and listed in an index at the end of the file,
+   which lets playback seek without replaying from the start. */
+public final class ReplayRecorder implements Closeable {
+    static final int MAGIC = 0x4D5A5250;          //"MZRP"
+    static final int INDEX_MAGIC = 0x4D5A4958;    //"MZIX"
+    static final short VERSION = 2;
+    static final int KEYFRAME_TICKS = 500;         //Five seconds of game time between keyframes
+
+    //Record types following the tick delta; types 0 to 8 encode a direction as (dx + 1) * 3 + (dy + 1)
+    static final byte STOP = 9;
+    static final byte KEYFRAME = 10;
+    static final byte END = 11;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+    private final List<long[]> keyframes = new ArrayList<>(); //Tick and file offset of every keyframe
+    private long lastTick = 0;
+    private boolean finished = false;
+
+    public ReplayRecorder(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    //Writes the header and the keyframe for the starting state
+    void start(GameSimulation simulation) {
+        Maze maze = simulation.getMaze();
+        byte[] pathfinder = Pathfinder.configuredName().getBytes(StandardCharsets.US_ASCII);
+        ensure(4 + 2 + 8 + 4 * 4 + 1 + pathfinder.length);
+        buffer.putInt(MAGIC).putShort(VERSION)
+              .putLong(maze.getSeed())
+              .putInt(simulation.getRunNum())
+              .putInt(maze.getWidth()).putInt(maze.getHeight())
+              .putInt(maze.getMonsters().size())
+              .put((byte) pathfinder.length).put(pathfinder);
+        keyframe(simulation);
+    }
+
+    void direction(long tick, int dx, int dy) {
+        record(tick, (byte) ((dx + 1) * 3 + (dy + 1)));
+    }
+
+    void stop(long tick) {
+        record(tick, STOP);
+    }
+
+    //Called after every tick: writes keyframes on schedule and finishes the file when the game ends
+    void ticked(GameSimulation simulation) {
+        if (finished) return;
+        if (simulation.isFinished()) {
+            record(simulation.getTicks(), END);
+            ensure(1 + 8);
+            buffer.put((byte) simulation.getOutcome().ordinal()).putLong(simulation.stateHash());
+            close();
+        } else if (simulation.getTicks() % KEYFRAME_TICKS == 0) {
+            keyframe(simulation);
+        }
+    }
+
+    private void keyframe(GameSimulation simulation) {
+        int size = simulation.stateSize();
+        ensure(10 + 1 + 4);
+        keyframes.add(new long[] {simulation.getTicks(), offset()});
+        record(simulation.getTicks(), KEYFRAME);
+        buffer.putInt(size);
+
+        ByteBuffer state = ByteBuffer.allocate(size);
+        simulation.writeState(state);
+        state.flip();
+        ensure(size);
+        if (size > buffer.capacity()) {
+            writeFully(state);
+        } else {
+            buffer.put(state);
+        }
+    }
+
+    private void record(long tick, byte type) {
+        ensure(10 + 1);
+        long delta = tick - lastTick;
+        lastTick = tick;
+        while ((delta & ~0x7FL) != 0) {
+            buffer.put((byte) ((delta & 0x7F) | 0x80));
+            delta >>>= 7;
+        }
+        buffer.put((byte) delta);
+        buffer.put(type);
+    }
+
+    //Writes the keyframe index and closes the file; does nothing if already closed
+    @Override
+    public void close() {
+        if (finished) return;
+        finished = true;
+        try {
+            long indexOffset = offset();
+            ensure(4);
+            buffer.putInt(keyframes.size());
+            for (long[] keyframe : keyframes) {
+                ensure(16);
+                buffer.putLong(keyframe[0]).putLong(keyframe[1]);
+            }
+            ensure(12);
+            buffer.putLong(indexOffset).putInt(INDEX_MAGIC);
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //File offset the next byte will be written at
+    private long offset() {
+        try {
+            return channel.position() + buffer.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Makes room for the given number of bytes, flushing the buffer if needed
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer data) {
+        try {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Binary min-heap of cell indices ordered by a long key, for best-first searches.
+   A cell may be pushed again with a better key instead of being updated in place;
+   the search skips the stale copy when it comes off the heap. */
+final class SearchHeap {
+    private long[] keys = new long[64];
+    private int[] cells = new int[64];
+    private int size = 0;
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void push(int cell, long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            cells = Arrays.copyOf(cells, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            cells[i] = cells[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        cells[i] = cell;
+    }
+
+    //Removes and returns the cell with the smallest key
+    int pop() {
+        int top = cells[0];
+        size--;
+        long key = keys[size];
+        int cell = cells[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (key <= keys[child]) break;
+            keys[i] = keys[child];
+            cells[i] = cells[child];
+            i = child;
+        }
+        keys[i] = key;
+        cells[i] = cell;
+        return top;
+    }
+}
@@ -0,0 +1,202 @@
+package Game;
+
+import java.util.concurrent.ForkJoinPool;
+
+/* Headless self-play harness for tuning difficulty.
+   BotPlayer plays batches of solvable mazes at each run number, on a ForkJoin pool sized
+   to the machine, and the harness reports how often the bot escapes, how long escapes take
+   and when and with how many keys it gets caught. Mazes come from MazeGenerator, so a batch
+   is reproducible from its seed however the games are spread over threads, and results are
+   merged per worker before being combined, so the games never contend on shared counters. */
+public final class SelfPlay {
+    public static final long DEFAULT_MAX_TICKS = 10 * 60 * 1000 / GameSimulation.TICK_MS; //Ten minutes of game time
+
+    private final MazeGenerator generator;
+    private final long maxTicks;
+
+    public SelfPlay(int width, int height, int monsterCount, long maxTicks) {
+        this.generator = new MazeGenerator(width, height, monsterCount, MazeGenerator.DEFAULT_MAX_ATTEMPTS);
+        this.maxTicks = maxTicks;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 5) {
+            throw new IllegalArgumentException("Give both width and height, or neither");
+        }
+        int games = args.length >= 1 ? Integer.parseInt(args[0]) : 10_000;
+        int runs = args.length >= 2 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length >= 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length >= 4 ? Long.parseLong(args[3]) : 1;
+        int width = args.length >= 6 ? Integer.parseInt(args[4]) : Maze.DEFAULT_SIZE;
+        int height = args.length >= 6 ? Integer.parseInt(args[5]) : Maze.DEFAULT_SIZE;
+        int monsters = args.length >= 7 ? Integer.parseInt(args[6]) : 1;
+
+        GameMetrics.install();
+        SelfPlay selfPlay = new SelfPlay(width, height, monsters, DEFAULT_MAX_TICKS);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            System.out.println(games + " games per run on " + width + "x" + height + " mazes with "
+                    + monsters + " monster(s), " + threads + " threads, seed " + seed);
+            for (int runNum = 0; runNum < runs; runNum++) {
+                long started = System.nanoTime();
+                Results results = selfPlay.play(runNum, games, seed + runNum, pool);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                System.out.println(results);
+                System.out.printf("  %.0f games/s, %.0f ticks/s%n", games / seconds, results.getTicks() / seconds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //Plays count games at the given run number in parallel on the pool
+    public Results play(int runNum, int count, long seed, ForkJoinPool pool) {
+        return pool.submit(() -> generator.generate(count, seed)
+                .map(maze -> play(maze, runNum))
+                .collect(() -> new Results(runNum), Results::add, Results::merge))
+                .join();
+    }
+
+    //Lets the bot play a single maze to the end, or until it runs out of ticks
+    public GameResult play(Maze maze, int runNum) {
+        GameSimulation simulation = new GameSimulation(maze, runNum);
+        new BotPlayer(simulation).play(maxTicks);
+        return new GameResult(simulation.getOutcome(), simulation.getTicks(), simulation.getTimeMillis(),
+                maze.getPlayer().getKeysCollected());
+    }
+
+    //How one game ended; RUNNING means it hit the tick limit
+    public static final class GameResult {
+        private final GameSimulation.Outcome outcome;
+        private final long ticks;
+        private final long timeMillis;
+        private final int keysCollected;
+
+        public GameResult(GameSimulation.Outcome outcome, long ticks, long timeMillis, int keysCollected) {
+            this.outcome = outcome;
+            this.ticks = ticks;
+            this.timeMillis = timeMillis;
+            this.keysCollected = keysCollected;
+        }
+
+        public GameSimulation.Outcome getOutcome() { return outcome; }
+        public long getTicks() { return ticks; }
+        public long getTimeMillis() { return timeMillis; }
+        public int getKeysCollected() { return keysCollected; }
+    }
+
+    /* Outcome counts for one run number, with escape and catch times in whole-second buckets
+       and catches split by how many keys the player held. */
+    public static final class Results {
+        private static final int MAX_KEYS = 4;         //Mazes place at most four keys
+
+        private final int runNum;
+        private long games;
+        private long escaped;
+        private long caught;
+        private long timedOut;
+        private long ticks;
+        private final long[] escapeSeconds = new long[(int) (DEFAULT_MAX_TICKS * GameSimulation.TICK_MS / 1000) + 1];
+        private final long[] catchSeconds = new long[escapeSeconds.length];
+        private final long[] catchKeys = new long[MAX_KEYS + 1];
+
+        public Results(int runNum) {
+            this.runNum = runNum;
+        }
+
+        public void add(GameResult result) {
+            games++;
+            ticks += result.getTicks();
+            int second = (int) Math.min(result.getTimeMillis() / 1000, escapeSeconds.length - 1);
+            switch (result.getOutcome()) {
+                case ESCAPED:
+                    escaped++;
+                    escapeSeconds[second]++;
+                    break;
+                case CAUGHT:
+                    caught++;
+                    catchSeconds[second]++;
+                    catchKeys[Math.min(result.getKeysCollected(), MAX_KEYS)]++;
+                    break;
+                default:
+                    timedOut++;
+            }
+        }
+
+        public void merge(Results other) {
+            games += other.games;
+            escaped += other.escaped;
+            caught += other.caught;
+            timedOut += other.timedOut;
+            ticks += other.ticks;
+            for (int i = 0; i < escapeSeconds.length; i++) {
+                escapeSeconds[i] += other.escapeSeconds[i];
+                catchSeconds[i] += other.catchSeconds[i];
+            }
+            for (int i = 0; i < catchKeys.length; i++) {
+                catchKeys[i] += other.catchKeys[i];
+            }
+        }
+
+        public int getRunNum() { return runNum; }
+        public long getGames() { return games; }
+        public long getEscaped() { return escaped; }
+        public long getCaught() { return caught; }
+        public long getTimedOut() { return timedOut; }
+        public long getTicks() { return ticks; }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) escaped / games;
+        }
+
+        //Seconds by which the given fraction of escapes had happened, or -1 if there were none
+        public int escapeSecondsPercentile(double fraction) {
+            return percentile(escapeSeconds, escaped, fraction);
+        }
+
+        //Seconds by which the given fraction of catches had happened, or -1 if there were none
+        public int catchSecondsPercentile(double fraction) {
+            return percentile(catchSeconds, caught, fraction);
+        }
+
+        //Share of catches that happened after the monster became enraged
+        public double getEnragedCatchRate() {
+            long late = 0;
+            for (int second = GameSimulation.RAGE_SECONDS; second < catchSeconds.length; second++) {
+                late += catchSeconds[second];
+            }
+            return caught == 0 ? 0 : (double) late / caught;
+        }
+
+        //Share of catches where the player held the given number of keys
+        public double getCatchRateWithKeys(int keys) {
+            return caught == 0 ? 0 : (double) catchKeys[keys] / caught;
+        }
+
+        private static int percentile(long[] buckets, long count, double fraction) {
+            if (count == 0) return -1;
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int second = 0; second < buckets.length; second++) {
+                seen += buckets[second];
+                if (seen >= rank) return second;
+            }
+            return buckets.length - 1;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("run %d: %d games, escaped %.1f%%, caught %.1f%%, timed out %.1f%%",
+                    runNum, games, 100.0 * escaped / games, 100.0 * caught / games, 100.0 * timedOut / games));
+            text.append(String.format("%n  escape time p50 %ds p90 %ds", escapeSecondsPercentile(0.5), escapeSecondsPercentile(0.9)));
+            text.append(String.format(" | catch time p50 %ds p90 %ds, %.1f%% enraged",
+                    catchSecondsPercentile(0.5), catchSecondsPercentile(0.9), 100 * getEnragedCatchRate()));
+            text.append(" | caught holding");
+            for (int keys = 0; keys <= MAX_KEYS; keys++) {
+                text.append(String.format(" %d key%s %.1f%%", keys, keys == 1 ? "" : "s", 100 * getCatchRateWithKeys(keys)));
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package Game;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/* Plays the game in a terminal, for machines reached over SSH with no display.
+   Runs the same GameSimulation as the Swing window. Input is read from stdin with the terminal in
+   raw mode: W, A, S, D or the arrow keys move, space stops and Q quits. A terminal never reports
+   key releases, so PlayerInput counts a direction as released once its key stops repeating.
+   With "endless" as the first argument it walks an EndlessSimulation instead, laid out on the
+   way, until the player quits.
+   Usage: TerminalGame [width height [monsters [seed]]] or TerminalGame endless [seed] */
+public final class TerminalGame {
+    private static final long RELEASE_MS = Long.getLong("maze.input.hold", 550); //Longer than a terminal's usual delay before key repeat starts
+
+    private final PlayerInput input = new PlayerInput(0, RELEASE_MS); //Filled by the input thread
+    private final FileChannel out = new FileOutputStream(FileDescriptor.out).getChannel();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(1 << 16);
+    private final MazeGenerator generator;        //Builds each maze, passing over seeds that cannot be won
+    private final int[] terminalSize;
+    private long seed;
+    private volatile boolean running = true;
+
+    private TerminalGame(int width, int height, int monsterCount, long seed) {
+        this.generator = new MazeGenerator(width, height, monsterCount, MazeGenerator.DEFAULT_MAX_ATTEMPTS);
+        this.seed = seed;
+        this.terminalSize = terminalSize();
+    }
+
+    public static void main(String[] args) {
+        boolean endless = args.length >= 1 && args[0].equals("endless");
+        int width = !endless && args.length >= 2 ? Integer.parseInt(args[0]) : Maze.DEFAULT_SIZE;
+        int height = !endless && args.length >= 2 ? Integer.parseInt(args[1]) : Maze.DEFAULT_SIZE;
+        int monsters = !endless && args.length >= 3 ? Integer.parseInt(args[2]) : 1;
+        int seedArgument = endless ? 1 : 3;
+        long seed = args.length > seedArgument ? Long.parseLong(args[seedArgument]) : System.nanoTime();
+
+        GameMetrics.install();
+
+        //Put the terminal back however the game ends, including Ctrl+C
+        String savedMode = stty("-g");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (savedMode != null) {
+                stty(savedMode);
+            }
+            System.out.print("\u001b[0m\u001b[?25h");
+            System.out.flush();
+        }));
+        stty("-icanon -echo min 1");
+        TerminalGame game = new TerminalGame(width, height, monsters, seed);
+        if (endless) {
+            game.runEndless();
+        } else {
+            game.run();
+        }
+    }
+
+    private void run() {
+        startInput();
+        int runNum = 0;
+        while (running) {
+            GameSimulation simulation = new GameSimulation(generator.generate(seed), runNum);
+            GameSimulation.Outcome outcome = play(simulation, runNum);
+            if (outcome != GameSimulation.Outcome.ESCAPED) break;
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(2)); //Let the player see the result
+            runNum++;
+            seed = seed * 6364136223846793005L + 1442695040888963407L; //Next maze in a reproducible series
+        }
+    }
+
+    //Runs one maze in real time until it ends or the player quits
+    private GameSimulation.Outcome play(GameSimulation simulation, int runNum) {
+        TerminalRenderer renderer = new TerminalRenderer(simulation.getMaze(), terminalSize[1] / 2, terminalSize[0] - 2);
+        simulation.setInput(input);
+
+        runLoop(new GameLoop(GameSimulation.TICK_MS, Runnable::run, ticks -> {
+            for (int i = 0; i < ticks && !simulation.isFinished(); i++) {
+                simulation.tick();
+            }
+            write(renderer.render(status(simulation, runNum)));
+            return running && !simulation.isFinished();
+        }));
+
+        write(renderer.render(status(simulation, runNum) + ending(simulation.getOutcome())));
+        write(renderer.restore());
+        return simulation.getOutcome();
+    }
+
+    //Walks one endless maze in real time until the player quits
+    private void runEndless() {
+        startInput();
+        EndlessSimulation simulation = new EndlessSimulation(seed);
+        simulation.setInput(input);
+        TerminalRenderer renderer = new TerminalRenderer(new TerminalRenderer.Board() {
+            @Override public int getWidth() { return Integer.MAX_VALUE; }
+            @Override public int getHeight() { return Integer.MAX_VALUE; }
+            @Override public char getCell(int x, int y) { return simulation.getCell(x, y); }
+            @Override public int getFocusX() { return simulation.getPlayerX(); }
+            @Override public int getFocusY() { return simulation.getPlayerY(); }
+        }, terminalSize[1] / 2, terminalSize[0] - 2);
+
+        runLoop(new GameLoop(GameSimulation.TICK_MS, Runnable::run, ticks -> {
+            for (int i = 0; i < ticks; i++) {
+                simulation.tick();
+            }
+            write(renderer.render(endlessStatus(simulation)));
+            return running;
+        }));
+        write(renderer.restore());
+    }
+
+    private void startInput() {
+        Thread input = new Thread(this::readInput, "terminal-input");
+        input.setDaemon(true);
+        input.start();
+    }
+
+    //Ticks run on the loop's own thread, which is also the only one touching the terminal
+    private static void runLoop(GameLoop loop) {
+        loop.start();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            loop.stop();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String endlessStatus(EndlessSimulation simulation) {
+        EndlessTerrain terrain = simulation.getTerrain();
+        return "Furthest " + simulation.getFurthest() + "  Steps " + simulation.getSteps()
+                + "  Chunks " + terrain.getCachedChunks() + "/" + terrain.getCapacity()
+                + " held, " + terrain.getGeneratedChunks() + " laid out";
+    }
+
+    private static String status(GameSimulation simulation, int runNum) {
+        Maze maze = simulation.getMaze();
+        int remaining = Math.max(0, GameSimulation.RAGE_SECONDS - simulation.getElapsedSeconds());
+        boolean enraged = !maze.getMonsters().isEmpty() && maze.getMonster().isEnraged();
+        return "Keys " + maze.getPlayer().getKeysCollected() + "/" + maze.getTotalKeys()
+                + "  Time " + remaining + "s  Runs " + runNum
+                + (enraged ? "  Monster is enraged!" : "")
+                + (simulation.isStuck() ? "  Trapped!" : "");
+    }
+
+    private static String ending(GameSimulation.Outcome outcome) {
+        switch (outcome) {
+            case CAUGHT: return "  GAME OVER! The monster caught you!";
+            case ESCAPED: return "  YOU ESCAPED!";
+            default: return "";
+        }
+    }
+
+    //Sends a frame to the terminal in one write
+    private void write(CharSequence text) {
+        if (text.length() == 0) return;
+        try {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            while (true) {
+                bytes.clear();
+                boolean done = !encoder.encode(chars, bytes, true).isOverflow();
+                bytes.flip();
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+                if (done) break;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //Turns keys from stdin into input events, decoding the escape sequences arrow keys send
+    private void readInput() {
+        InputStream in = System.in;
+        try {
+            int escape = 0; //Bytes of an arrow key sequence seen so far
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (escape == 1) {
+                    escape = b == '[' ? 2 : 0;
+                    continue;
+                }
+                if (escape == 2) {
+                    escape = 0;
+                    switch (b) {
+                        case 'A': input.press(0, -1); break;
+                        case 'B': input.press(0, 1); break;
+                        case 'C': input.press(1, 0); break;
+                        case 'D': input.press(-1, 0); break;
+                    }
+                    continue;
+                }
+                switch (Character.toLowerCase(b)) {
+                    case 27: escape = 1; break;
+                    case 'w': input.press(0, -1); break;
+                    case 's': input.press(0, 1); break;
+                    case 'a': input.press(-1, 0); break;
+                    case 'd': input.press(1, 0); break;
+                    case ' ': input.stop(); break;
+                    case 'q': running = false; break;
+                }
+            }
+        } catch (IOException e) {
+            //stdin closed; the game keeps running until it ends
+        }
+    }
+
+    //Rows and columns of the terminal, or 24x80 if they cannot be read or the terminal reports none
+    private static int[] terminalSize() {
+        String size = stty("size");
+        if (size != null) {
+            String[] parts = size.trim().split("\\s+");
+            if (parts.length == 2) {
+                try {
+                    int rows = Integer.parseInt(parts[0]);
+                    int columns = Integer.parseInt(parts[1]);
+                    if (rows > 2 && columns > 1) {
+                        return new int[] {rows, columns};
+                    }
+                } catch (NumberFormatException e) {
+                    //Fall through to the default
+                }
+            }
+        }
+        return new int[] {24, 80};
+    }
+
+    //Runs stty on the controlling terminal and returns its output, or null if there is no terminal
+    private static String stty(String arguments) {
+        try {
+            Process process = new ProcessBuilder("sh", "-c", "stty " + arguments + " < /dev/tty")
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package Game;
+
+import java.util.Arrays;
+
+/* Draws the maze for an ANSI terminal.
+   Every cell takes two columns so the maze keeps its shape, coloured like the Swing view. The
+   renderer remembers what the terminal already shows and each frame only writes the cells that
+   differ, moving the cursor with escape codes instead of redrawing the screen. A frame is built
+   in one StringBuilder so the caller can send it to the terminal in a single write. */
+public final class TerminalRenderer {
+    //What the renderer draws: a grid of symbols and the cell the view keeps in sight
+    interface Board {
+        int getWidth();
+        int getHeight();
+        char getCell(int x, int y);
+        int getFocusX();
+        int getFocusY();
+    }
+
+    private static final String ESC = "\u001b[";
+    private static final int MAZE_TOP = 2;       //Terminal row of the first maze row; the status line is above it
+
+    private final Board board;
+    private final int columns;                   //Cells visible across the terminal
+    private final int rows;                      //Cells visible down the terminal
+    private final char[] shown;                  //Symbol the terminal currently shows in each view cell, 0 if unknown
+    private final StringBuilder frame = new StringBuilder();
+    private int cameraX = 0, cameraY = 0;        //Top-left cell shown in the view
+    private String shownStatus = null;
+    private int cursorRow, cursorColumn;         //Where the terminal cursor is after the last write
+    private String colour;                       //Colour escape the terminal is currently drawing with
+
+    public TerminalRenderer(Maze maze, int columns, int rows) {
+        this(new Board() {
+            @Override public int getWidth() { return maze.getWidth(); }
+            @Override public int getHeight() { return maze.getHeight(); }
+            @Override public char getCell(int x, int y) { return maze.getCell(x, y); }
+            @Override public int getFocusX() { return maze.getPlayer().getX(); }
+            @Override public int getFocusY() { return maze.getPlayer().getY(); }
+        }, columns, rows);
+    }
+
+    TerminalRenderer(Board board, int columns, int rows) {
+        this.board = board;
+        this.columns = Math.min(columns, board.getWidth());
+        this.rows = Math.min(rows, board.getHeight());
+        this.shown = new char[this.columns * this.rows];
+    }
+
+    //Forgets what the terminal shows so the next frame clears the screen and draws everything
+    public void invalidate() {
+        Arrays.fill(shown, (char) 0);
+        shownStatus = null;
+    }
+
+    /* Returns the escape sequence that brings the terminal up to date with the board and status
+       line, or an empty sequence if nothing changed. The result is reused by the next call. */
+    public CharSequence render(String status) {
+        frame.setLength(0);
+        colour = null;
+        cursorRow = -1;
+        if (shownStatus == null) {
+            frame.append(ESC).append("0m").append(ESC).append("2J").append(ESC).append("?25l"); //Clear and hide the cursor
+        }
+
+        int newX = Camera.follow(cameraX, board.getFocusX(), columns, board.getWidth());
+        int newY = Camera.follow(cameraY, board.getFocusY(), rows, board.getHeight());
+        cameraX = newX;
+        cameraY = newY;
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                char cell = board.getCell(cameraX + column, cameraY + row);
+                int i = row * columns + column;
+                if (shown[i] != cell) {
+                    shown[i] = cell;
+                    drawCell(MAZE_TOP + row, 1 + column * 2, cell);
+                }
+            }
+        }
+
+        if (!status.equals(shownStatus)) {
+            moveTo(1, 1);
+            setColour("0m");
+            frame.append(status).append(ESC).append('K'); //Clear whatever the old status left behind
+            cursorColumn += status.length();
+            shownStatus = status;
+        }
+
+        if (frame.length() > 0) {
+            frame.append(ESC).append("0m");
+            frame.append(ESC).append(MAZE_TOP + rows).append(";1H"); //Park the cursor below the maze
+        }
+        return frame;
+    }
+
+    //Leaves the terminal in its normal state, below the last frame
+    public String restore() {
+        return ESC + "0m" + ESC + (MAZE_TOP + rows) + ";1H" + ESC + "?25h\n";
+    }
+
+    private void drawCell(int row, int column, char cell) {
+        moveTo(row, column);
+        setColour(colourOf(cell));
+        if (cell == '#' || cell == ' ') {
+            frame.append("  ");
+        } else {
+            frame.append(cell).append(' ');
+        }
+        cursorColumn += 2;
+    }
+
+    //Moves the cursor unless the last cell written already left it in place
+    private void moveTo(int row, int column) {
+        if (row != cursorRow || column != cursorColumn) {
+            frame.append(ESC).append(row).append(';').append(column).append('H');
+            cursorRow = row;
+            cursorColumn = column;
+        }
+    }
+
+    private void setColour(String code) {
+        if (!code.equals(colour)) {
+            frame.append(ESC).append(code);
+            colour = code;
+        }
+    }
+
+    //Background escape for each maze symbol, matching GamePanel.colorOf; entity letters are black
+    private static String colourOf(char cell) {
+        switch (cell) {
+            case '#': return "40m";
+            case ' ': return "47m";
+            case 'P': return "30;44m";
+            case 'K': return "30;43m";
+            case 'T': return "30;48;5;208m";
+            case 'M': return "30;41m";
+            case 'D': return "30;42m";
+            default:  return "30;45m";
+        }
+    }
+}
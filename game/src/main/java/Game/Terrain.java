@@ -0,0 +1,299 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/* The walls of a maze, which never change once they are laid out.
+   A terrain holds no player, monsters or items and is never written after construction,
+   so any number of mazes, and the threads deciding their monsters' moves, can share one
+   instance without locking. Walls are kept one bit per cell in row-major order, and once more
+   in column-major order so line-of-sight checks along a column read consecutive bits too. */
+public final class Terrain {
+    static final int CHUNK_SIZE = 6; //Width and height of every chunk template
+
+    private final int width;
+    private final int height;
+    private final long seed;          //Seed the layout was generated from
+    private final long[] walls;       //One bit per cell, set where the cell is a wall
+    private final long[] columnWalls; //The same bits in column-major order, bit x * height + y
+
+    //Predefined set of 6x6 chunks which generate will randomly
+    //select from & arrange into a grid covering the maze
+    private static final char[][][] CHUNKS = {
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ','#',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#','#','#',' '},
+            {'#',' ','#',' ','#',' '},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#',' ','#',' '},
+            {'#',' ','#','#','#',' '},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#','#','#','#'},
+            {' ',' ','#',' ',' ',' '},
+            {'#',' ','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#','#','#','#','#',' '},
+            {' ',' ',' ',' ',' ',' '},
+            {'#',' ','#','#','#',' '},
+            {'#',' ','#',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#','#','#','#'},
+            {' ',' ',' ','#',' ',' '},
+            {'#',' ','#','#',' ','#'},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#','#','#','#'},
+            {' ',' ','#',' ',' ',' '},
+            {'#',' ','#','#','#',' '},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#','#','#',' '},
+            {'#','#','#',' ','#',' '},
+            {'#',' ',' ',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#',' ','#',' '},
+            {'#',' ','#',' ','#',' '},
+            {'#',' ','#',' ','#',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#','#','#',' '},
+            {'#',' ',' ',' ','#',' '},
+            {'#',' ','#',' ','#',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#','#','#',' ','#','#'},
+            {' ',' ',' ',' ',' ',' '},
+            {'#',' ','#','#',' ','#'},
+            {'#',' ','#',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#','#',' ','#'},
+            {' ',' ',' ',' ',' ',' '},
+            {'#',' ','#','#',' ','#'},
+            {'#',' ','#',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#','#','#',' '},
+            {' ',' ',' ',' ','#',' '},
+            {'#',' ','#','#','#',' '},
+            {'#',' ','#',' ',' ',' '}
+        },
+        {
+            {'#','#','#',' ','#','#'},
+            {'#',' ',' ',' ',' ',' '},
+            {'#',' ','#',' ','#',' '},
+            {' ',' ','#',' ','#',' '},
+            {'#',' ','#',' ','#',' '},
+            {'#',' ',' ',' ',' ',' '}
+        }
+    };
+
+    static final int CHUNK_TEMPLATES = CHUNKS.length;
+
+    private Terrain(int width, int height, long seed, ByteBuffer buffer) {
+        if (width < Maze.MIN_SIZE || height < Maze.MIN_SIZE || width > Maze.MAX_SIZE || height > Maze.MAX_SIZE) {
+            throw new IllegalArgumentException("Maze size must be between " + Maze.MIN_SIZE + " and " + Maze.MAX_SIZE
+                    + " on each side, got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.seed = seed;
+        this.walls = new long[(width * height + 63) >>> 6];
+        this.columnWalls = new long[walls.length];
+        if (buffer == null) {
+            generate(new Random(seed));
+        } else {
+            read(buffer);
+        }
+        buildColumnWalls();
+    }
+
+    //Lays out a terrain from the seed, the same one a maze built from that seed stands on
+    public static Terrain generate(int width, int height, long seed) {
+        return new Terrain(width, height, seed, null);
+    }
+
+    //Rebuilds a terrain from the wall bits written by write
+    static Terrain read(int width, int height, long seed, ByteBuffer buffer) {
+        return new Terrain(width, height, seed, buffer);
+    }
+
+    //Fills the terrain with random chunks and closes it with an outer wall
+    private void generate(Random random) {
+        //The last row and column of chunks are clipped where they would run into the outer wall
+        int chunksX = chunksX();
+        int chunksY = chunksY();
+        for (int chunkY = 0; chunkY < chunksY; chunkY++) {
+            for (int chunkX = 0; chunkX < chunksX; chunkX++) {
+                char[][] selectedChunk = CHUNKS[random.nextInt(CHUNKS.length)];
+
+                //Copy the selected chunk into the correct spot in the terrain
+                int rows = Math.min(CHUNK_SIZE, height - chunkY * CHUNK_SIZE);
+                int cols = Math.min(CHUNK_SIZE, width - chunkX * CHUNK_SIZE);
+                for (int y = 0; y < rows; y++) {
+                    int row = (chunkY * CHUNK_SIZE + y) * width + chunkX * CHUNK_SIZE;
+                    for (int x = 0; x < cols; x++) {
+                        if (selectedChunk[y][x] == '#') setWall(row + x);
+                    }
+                }
+            }
+        }
+
+        //Create walls along the outer borders
+        for (int y = 0; y < height; y++) {
+            setWall(y * width);             //Left side
+            setWall(y * width + width - 1); //Right side
+        }
+        for (int x = 0; x < width; x++) {
+            setWall(x);                        //Top side
+            setWall((height - 1) * width + x); //Bottom side
+        }
+    }
+
+    /* Advances a fresh Random built from the seed past the draws the layout took, so a maze
+       placing its entities on a shared terrain continues the stream exactly where generating
+       the terrain itself would have left it. */
+    void skipLayout(Random random) {
+        for (int i = chunksX() * chunksY(); i > 0; i--) {
+            random.nextInt(CHUNKS.length);
+        }
+    }
+
+    //Walls of a chunk template as a mask, bit y * CHUNK_SIZE + x set where the cell is a wall
+    static long chunkWalls(int template) {
+        long walls = 0;
+        for (int y = 0; y < CHUNK_SIZE; y++) {
+            for (int x = 0; x < CHUNK_SIZE; x++) {
+                if (CHUNKS[template][y][x] == '#') walls |= 1L << (y * CHUNK_SIZE + x);
+            }
+        }
+        return walls;
+    }
+
+    private int chunksX() {
+        return (width - 1 + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private int chunksY() {
+        return (height - 1 + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    private void setWall(int i) {
+        walls[i >>> 6] |= 1L << i;
+    }
+
+    //Copies the wall bits into column-major order
+    private void buildColumnWalls() {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isWall(y * width + x)) {
+                    int i = x * height + y;
+                    columnWalls[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public boolean isWall(int x, int y) {
+        return isWall(y * width + x);
+    }
+
+    //Checks the wall bit of a row-major cell index
+    boolean isWall(int i) {
+        return (walls[i >>> 6] & (1L << i)) != 0;
+    }
+
+    //Checks if two cells can see each other along a row or column with no wall in between
+    public boolean inLineOfSight(int x1, int y1, int x2, int y2) {
+        if (x1 == x2 && y1 == y2) return true;
+        if (y1 == y2) return noWallIn(walls, y1 * width + Math.min(x1, x2), y1 * width + Math.max(x1, x2));
+        if (x1 == x2) return noWallIn(columnWalls, x1 * height + Math.min(y1, y2), x1 * height + Math.max(y1, y2));
+        return false;
+    }
+
+    //Checks that no bit from first to last, both included, is set, a whole word at a time
+    private static boolean noWallIn(long[] bits, int first, int last) {
+        int firstWord = first >>> 6, lastWord = last >>> 6;
+        long firstMask = -1L << first;          //Shifts only use the low six bits of the index
+        long lastMask = -1L >>> (63 - (last & 63));
+        if (firstWord == lastWord) return (bits[firstWord] & firstMask & lastMask) == 0;
+        if ((bits[firstWord] & firstMask) != 0 || (bits[lastWord] & lastMask) != 0) return false;
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            if (bits[word] != 0) return false;
+        }
+        return true;
+    }
+
+    //Bytes write will produce: one bit per cell, packed into whole longs
+    int stateSize() {
+        return walls.length * 8;
+    }
+
+    //Saves the layout as one bit per cell in row-major order, set where the cell is a wall
+    void write(ByteBuffer buffer) {
+        for (long word : walls) {
+            buffer.putLong(word);
+        }
+    }
+
+    private void read(ByteBuffer buffer) {
+        for (int i = 0; i < walls.length; i++) {
+            walls[i] = buffer.getLong();
+        }
+        //Bits past the last cell belong to no cell and must stay clear
+        int tail = (width * height) & 63;
+        if (tail != 0) {
+            walls[walls.length - 1] &= (1L << tail) - 1;
+        }
+    }
+}